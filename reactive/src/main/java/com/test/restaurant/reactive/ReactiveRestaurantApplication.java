@@ -0,0 +1,19 @@
+package com.test.restaurant.reactive;
+
+import com.test.restaurant.reactive.config.ApplicationProperties;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+/**
+ * Non-blocking (WebFlux and R2DBC) flavour of the restaurant application,
+ * serving the same {@code /recipes} and {@code /ingredients} API over the same tables.
+ */
+@SpringBootApplication
+@EnableConfigurationProperties(ApplicationProperties.class)
+public class ReactiveRestaurantApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveRestaurantApplication.class, args);
+    }
+}
@@ -0,0 +1,30 @@
+package com.test.restaurant.reactive.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties specific to the reactive restaurant application, under the {@code restaurant} prefix.
+ */
+@ConfigurationProperties(prefix = "restaurant")
+public class ApplicationProperties {
+    private final R2dbc r2dbc = new R2dbc();
+
+    public R2dbc getR2dbc() {
+        return r2dbc;
+    }
+
+    public static class R2dbc {
+        /**
+         * R2DBC url of the database, {@code r2dbc:pool:...} for a connection pool.
+         */
+        private String url;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.test.restaurant.reactive.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+
+import java.util.Arrays;
+
+/**
+ * Lets the Jackson encoder write {@code application/x-ndjson}, as a stream: every element is written and flushed
+ * as soon as it is emitted, and the next ones are only requested when the connection can take them.
+ */
+@Configuration
+public class CodecConfiguration {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    @Bean
+    public CodecCustomizer ndjsonCodecCustomizer(ObjectMapper objectMapper) {
+        return configurer -> {
+            final Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper, new MimeType[]{
+                    MediaType.APPLICATION_JSON, new MediaType("application", "*+json"), APPLICATION_NDJSON});
+            encoder.setStreamingMediaTypes(Arrays.asList(APPLICATION_NDJSON, MediaType.APPLICATION_STREAM_JSON));
+            configurer.defaultCodecs().jackson2JsonEncoder(encoder);
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.test.restaurant.reactive.config;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.connectionfactory.R2dbcTransactionManager;
+import org.springframework.data.r2dbc.connectionfactory.init.ConnectionFactoryInitializer;
+import org.springframework.data.r2dbc.connectionfactory.init.ResourceDatabasePopulator;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+/**
+ * R2DBC connection factory, repositories and transactions. The database is created with the
+ * {@code schema.sql} and {@code data.sql} scripts of the servlet application.
+ */
+@Configuration
+@EnableR2dbcRepositories(basePackages = "com.test.restaurant.reactive.repository")
+@EnableTransactionManagement
+public class R2dbcConfiguration extends AbstractR2dbcConfiguration {
+    private final ApplicationProperties applicationProperties;
+
+    public R2dbcConfiguration(ApplicationProperties applicationProperties) {
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Override
+    @Bean
+    public ConnectionFactory connectionFactory() {
+        return ConnectionFactories.get(applicationProperties.getR2dbc().getUrl());
+    }
+
+    @Bean
+    public ConnectionFactoryInitializer connectionFactoryInitializer(ConnectionFactory connectionFactory) {
+        final ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
+        initializer.setConnectionFactory(connectionFactory);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(
+                new ClassPathResource("schema.sql"), new ClassPathResource("data.sql")));
+        return initializer;
+    }
+
+    @Bean
+    public ReactiveTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+        return new R2dbcTransactionManager(connectionFactory);
+    }
+}
@@ -0,0 +1,217 @@
+package com.test.restaurant.reactive.controller;
+
+import com.test.restaurant.reactive.config.CodecConfiguration;
+import com.test.restaurant.reactive.controller.util.ETagUtil;
+import com.test.restaurant.reactive.controller.util.PaginationUtil;
+import com.test.restaurant.reactive.entity.Ingredient;
+import com.test.restaurant.reactive.service.IngredientService;
+import com.test.restaurant.reactive.service.RecipeService;
+import com.test.restaurant.reactive.service.dto.IngredientDTO;
+import com.test.restaurant.reactive.service.mapper.IngredientMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/ingredients")
+public class IngredientController {
+    private final Logger log = LoggerFactory.getLogger(IngredientController.class);
+
+    private final IngredientService ingredientService;
+    private final RecipeService recipeService;
+    private final IngredientMapper ingredientMapper;
+
+    public IngredientController(IngredientService ingredientService, RecipeService recipeService, IngredientMapper ingredientMapper) {
+        this.ingredientService = ingredientService;
+        this.recipeService = recipeService;
+        this.ingredientMapper = ingredientMapper;
+    }
+
+    /**
+     * {@code GET /ingredients} : Get a page of ingredients ordered by id.
+     * @param after id of the last ingredient of the previous page, omitted for the first page
+     * @param limit maximum number of ingredients in the page
+     * @param embedRecipe whether to embed the recipe of each ingredient or to return only its {@code recipeId}
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, the {@code Link} header to the next page
+     * and with body with the list of {@link IngredientDTO},
+     * or with status {@code 400 (Bad Request)} if the limit is out of range
+     */
+    @GetMapping("")
+    public Mono<ResponseEntity<List<IngredientDTO>>> getAllIngredients(@RequestParam(name = "after", required = false) Long after,
+                                                                       @RequestParam(name = "limit", defaultValue = PaginationUtil.DEFAULT_LIMIT) int limit,
+                                                                       @RequestParam(name = "embedRecipe", defaultValue = "true") boolean embedRecipe,
+                                                                       ServerHttpRequest request) {
+        log.debug("REST request to get a page of Ingredients after: " + after);
+        if (!PaginationUtil.isValidLimit(limit)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return ingredientService.findPage(after, limit)
+                .collectList()
+                .map(ingredients -> {
+                    final HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(request, ingredients, Ingredient::getId, limit);
+                    final List<IngredientDTO> ingredientDTOS = ingredients.stream()
+                            .map(ingredient -> ingredientMapper.toDto(ingredient, embedRecipe))
+                            .collect(Collectors.toList());
+                    return new ResponseEntity<>(ingredientDTOS, headers, HttpStatus.OK);
+                });
+    }
+
+    /**
+     * {@code GET /ingredients/export} : Export all ingredients as newline delimited JSON.
+     * The ingredients are streamed from the database as the client reads them.
+     * @param embedRecipe whether to embed the recipe of each ingredient or to return only its {@code recipeId}
+     * @return the {@link IngredientDTO}s, one per line
+     */
+    @GetMapping(value = "/export", produces = CodecConfiguration.APPLICATION_NDJSON_VALUE)
+    public Flux<IngredientDTO> exportIngredients(@RequestParam(name = "embedRecipe", defaultValue = "true") boolean embedRecipe) {
+        log.debug("REST request to export all Ingredients");
+        return ingredientService.export()
+                .map(ingredient -> ingredientMapper.toDto(ingredient, embedRecipe));
+    }
+
+    /**
+     * {@code GET /ingredients/{id}} : Get an ingredient by id.
+     * @param embedRecipe whether to embed the recipe of the ingredient or to return only its {@code recipeId}
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, the {@code ETag} header
+     * and with body with the found {@link IngredientDTO},
+     * or with status {@code 304 (Not Modified)} and empty body if the {@code If-None-Match} header matches the {@code ETag}
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<IngredientDTO>> getIngredient(@PathVariable(name = "id") Long id,
+                                                             @RequestParam(name = "embedRecipe", defaultValue = "true") boolean embedRecipe) {
+        log.debug("REST request to get Ingredient by Id");
+        return ingredientService.findById(id)
+                .map(ingredient -> ResponseEntity.ok()
+                        .eTag(generateETag(ingredient, embedRecipe))
+                        .body(ingredientMapper.toDto(ingredient, embedRecipe)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * {@code POST /ingredients} : Create a new ingredient.
+     * @param ingredientDTO
+     * @return the {@link ResponseEntity} with status {@code 200(OK)} and with body with the created Ingredient as {@link IngredientDTO},
+     * or with status {@code 422 (Unprocessable Entity)} if its recipe does not exist
+     */
+    @PostMapping("")
+    public Mono<ResponseEntity<IngredientDTO>> createIngredient(@RequestBody @Valid IngredientDTO ingredientDTO) {
+        log.debug("REST request to create Ingredient");
+        return withRecipe(ingredientMapper.toEntity(ingredientDTO))
+                .flatMap(ingredientService::create)
+                .map(ingredient -> ResponseEntity.ok(ingredientMapper.toDto(ingredient, true)))
+                .defaultIfEmpty(ResponseEntity.unprocessableEntity().build());
+    }
+
+    /**
+     * {@code PUT /ingredients/{id}} : Update an existing Ingredient.
+     * Existence and version are checked by the UPDATE statement itself.
+     * @param id of the Ingredient to update
+     * @param ifMatch optional {@code ETag} of the Ingredient, the update is only done if it is still current
+     * @param ingredientDTO
+     * @return the {@link ResponseEntity} with status {@code 200(OK)}, the new {@code ETag} header
+     * and with body with the updated Ingredient as {@link IngredientDTO},
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the {@code ETag}
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<IngredientDTO>> updateIngredient(@PathVariable(name = "id") Long id,
+                                                                @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                @RequestBody @Valid IngredientDTO ingredientDTO) {
+        log.debug("REST request to update Ingredient");
+        ingredientDTO.setId(id);
+        final long[] versions = ETagUtil.parseVersions(ifMatch);
+        return withRecipe(ingredientMapper.toEntity(ingredientDTO))
+                .flatMap(ingredient -> ingredientService.update(ingredient, expectedVersion(versions), expectedRecipeVersion(versions))
+                        .map(updated -> ResponseEntity.ok()
+                                .eTag(generateETag(updated, true))
+                                .body(ingredientMapper.toDto(updated, true)))
+                        .switchIfEmpty(Mono.defer(() -> notFoundOrPreconditionFailed(id, ifMatch))))
+                .switchIfEmpty(Mono.defer(() -> ingredientService.exists(id)
+                        .map(exists -> exists
+                                ? ResponseEntity.unprocessableEntity().<IngredientDTO>build()
+                                : ResponseEntity.notFound().<IngredientDTO>build())));
+    }
+
+    /**
+     * {@code DELETE /ingredients/{id}} : Delete an existing Ingredient by id.
+     * Existence and version are checked by the DELETE statement itself.
+     * @param id
+     * @param ifMatch optional {@code ETag} of the Ingredient, the deletion is only done if it is still current
+     * @return the {@link ResponseEntity} with status {@code 200(OK)} and empty body,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the {@code ETag}
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable(name = "id") Long id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("REST request to delete Ingredient by id");
+        final long[] versions = ETagUtil.parseVersions(ifMatch);
+        return ingredientService.delete(id, expectedVersion(versions), expectedRecipeVersion(versions))
+                .flatMap(deleted -> deleted ? Mono.just(ResponseEntity.ok().<Void>build()) : notFoundOrPreconditionFailed(id, ifMatch));
+    }
+
+//////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @return the ingredient with its recipe set, empty if the recipe does not exist
+     */
+    private Mono<Ingredient> withRecipe(Ingredient ingredient) {
+        if (ingredient.getRecipeId() == null) {
+            return Mono.empty();
+        }
+        return recipeService.findById(ingredient.getRecipeId())
+                .map(recipe -> {
+                    ingredient.setRecipe(recipe);
+                    return ingredient;
+                });
+    }
+
+    /**
+     * The embedded recipe is part of the representation, so its version is part of the {@code ETag} too.
+     */
+    private String generateETag(Ingredient ingredient, boolean embedRecipe) {
+        return embedRecipe
+                ? ETagUtil.generateETag(ingredient.getVersion(), ingredient.getRecipe().getVersion())
+                : ETagUtil.generateETag(ingredient.getVersion());
+    }
+
+    /**
+     * Version of the Ingredient in an {@code If-Match} header, {@code null} if any version matches.
+     */
+    private static Long expectedVersion(long[] versions) {
+        return versions == null ? null : versions[0];
+    }
+
+    /**
+     * Version of the recipe in an {@code If-Match} header holding the {@code ETag} of an Ingredient embedding its recipe,
+     * {@code null} if the {@code ETag} does not embed the recipe. The whole {@code ETag} has to match, not only
+     * the version of the Ingredient.
+     */
+    private static Long expectedRecipeVersion(long[] versions) {
+        if (versions == null || versions.length == 1) {
+            return null;
+        }
+        return versions.length == 2 ? versions[1] : ETagUtil.NO_MATCH;
+    }
+
+    /**
+     * Tells apart, once a conditional write has updated no row, a missing Ingredient from a stale {@code If-Match} header.
+     */
+    private <T> Mono<ResponseEntity<T>> notFoundOrPreconditionFailed(Long id, String ifMatch) {
+        if (ifMatch == null) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        return ingredientService.exists(id)
+                .map(exists -> exists
+                        ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<T>build()
+                        : ResponseEntity.notFound().<T>build());
+    }
+}
@@ -0,0 +1,157 @@
+package com.test.restaurant.reactive.controller;
+
+import com.test.restaurant.reactive.config.CodecConfiguration;
+import com.test.restaurant.reactive.controller.util.ETagUtil;
+import com.test.restaurant.reactive.controller.util.PaginationUtil;
+import com.test.restaurant.reactive.entity.Recipe;
+import com.test.restaurant.reactive.service.RecipeService;
+import com.test.restaurant.reactive.service.dto.RecipeDTO;
+import com.test.restaurant.reactive.service.mapper.RecipeMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/recipes")
+public class RecipeController {
+    private final Logger log = LoggerFactory.getLogger(RecipeController.class);
+
+    private final RecipeService recipeService;
+    private final RecipeMapper recipeMapper;
+
+    public RecipeController(RecipeService recipeService, RecipeMapper recipeMapper) {
+        this.recipeService = recipeService;
+        this.recipeMapper = recipeMapper;
+    }
+
+    /**
+     * {@code GET /recipes} : Get a page of recipes ordered by id.
+     * @param after id of the last recipe of the previous page, omitted for the first page
+     * @param limit maximum number of recipes in the page
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, the {@code Link} header to the next page
+     * and with body with the list of {@link RecipeDTO},
+     * or with status {@code 400 (Bad Request)} if the limit is out of range
+     */
+    @GetMapping("")
+    public Mono<ResponseEntity<List<RecipeDTO>>> getAllRecipes(@RequestParam(name = "after", required = false) Long after,
+                                                               @RequestParam(name = "limit", defaultValue = PaginationUtil.DEFAULT_LIMIT) int limit,
+                                                               ServerHttpRequest request) {
+        log.debug("REST request to get a page of recipes after: " + after);
+        if (!PaginationUtil.isValidLimit(limit)) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return recipeService.findPage(after, limit)
+                .collectList()
+                .map(recipes -> {
+                    final HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(request, recipes, Recipe::getId, limit);
+                    final List<RecipeDTO> recipeDTOS = recipes.stream()
+                            .map(recipeMapper::toDto)
+                            .collect(Collectors.toList());
+                    return new ResponseEntity<>(recipeDTOS, headers, HttpStatus.OK);
+                });
+    }
+
+    /**
+     * {@code GET /recipes/export} : Export all recipes as newline delimited JSON.
+     * The recipes are streamed from the database as the client reads them.
+     * @return the {@link RecipeDTO}s, one per line
+     */
+    @GetMapping(value = "/export", produces = CodecConfiguration.APPLICATION_NDJSON_VALUE)
+    public Flux<RecipeDTO> exportRecipes() {
+        log.debug("REST request to export all recipes");
+        return recipeService.export()
+                .map(recipeMapper::toDto);
+    }
+
+    /**
+     * {@code GET /recipes/{id}} : Get a recipe by id.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, the {@code ETag} header
+     * and with body with the found {@link RecipeDTO},
+     * or with status {@code 304 (Not Modified)} and empty body if the {@code If-None-Match} header matches the {@code ETag}
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<RecipeDTO>> getRecipeById(@PathVariable(name = "id") Long id) {
+        log.debug("REST request to get Recipe by Id");
+        return recipeService.findById(id)
+                .map(recipe -> ResponseEntity.ok()
+                        .eTag(ETagUtil.generateETag(recipe.getVersion()))
+                        .body(recipeMapper.toDto(recipe)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * {@code POST /recipes} : Create a new Recipe.
+     * @param recipeDTO
+     * @return the {@link ResponseEntity} with status {@code 200(OK)} and with body with the created Recipe as {@link RecipeDTO}
+     */
+    @PostMapping("")
+    public Mono<ResponseEntity<RecipeDTO>> create(@RequestBody @Valid RecipeDTO recipeDTO) {
+        log.debug("REST request to create Recipe");
+        return recipeService.create(recipeMapper.toEntity(recipeDTO))
+                .map(recipe -> ResponseEntity.ok(recipeMapper.toDto(recipe)));
+    }
+
+    /**
+     * {@code PUT /recipes/{id}} : Update an existing Recipe.
+     * Existence and version are checked by the UPDATE statement itself.
+     * @param id of the Recipe to update
+     * @param ifMatch optional {@code ETag} of the Recipe, the update is only done if it is still current
+     * @param recipeDTO
+     * @return the {@link ResponseEntity} with status {@code 200(OK)}, the new {@code ETag} header
+     * and with body with the updated Recipe as {@link RecipeDTO},
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the {@code ETag}
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<RecipeDTO>> update(@PathVariable(name = "id") Long id,
+                                                  @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                  @RequestBody @Valid RecipeDTO recipeDTO) {
+        log.debug("REST request to update Recipe");
+        recipeDTO.setId(id);
+        return recipeService.update(recipeMapper.toEntity(recipeDTO), ETagUtil.parseVersion(ifMatch))
+                .map(recipe -> ResponseEntity.ok()
+                        .eTag(ETagUtil.generateETag(recipe.getVersion()))
+                        .body(recipeMapper.toDto(recipe)))
+                .switchIfEmpty(Mono.defer(() -> notFoundOrPreconditionFailed(id, ifMatch)));
+    }
+
+    /**
+     * {@code DELETE /recipes/{id}} : Delete an existing Recipe by id.
+     * Existence and version are checked by the DELETE statement itself.
+     * @param id
+     * @param ifMatch optional {@code ETag} of the Recipe, the deletion is only done if it is still current
+     * @return the {@link ResponseEntity} with status {@code 200(OK)} and empty body,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the {@code ETag}
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable(name = "id") Long id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("REST request to delete Recipe by id");
+        return recipeService.delete(id, ETagUtil.parseVersion(ifMatch))
+                .flatMap(deleted -> deleted ? Mono.just(ResponseEntity.ok().<Void>build()) : notFoundOrPreconditionFailed(id, ifMatch));
+    }
+
+/////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Tells apart, once a conditional write has updated no row, a missing Recipe from a stale {@code If-Match} header.
+     */
+    private <T> Mono<ResponseEntity<T>> notFoundOrPreconditionFailed(Long id, String ifMatch) {
+        if (ifMatch == null) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        return recipeService.exists(id)
+                .map(exists -> exists
+                        ? ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).<T>build()
+                        : ResponseEntity.notFound().<T>build());
+    }
+}
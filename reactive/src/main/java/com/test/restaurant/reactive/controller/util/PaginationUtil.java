@@ -0,0 +1,47 @@
+package com.test.restaurant.reactive.controller.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Utility class for handling keyset (cursor) pagination.
+ */
+public final class PaginationUtil {
+    public static final String DEFAULT_LIMIT = "100";
+    public static final int MAX_LIMIT = 1000;
+
+    private PaginationUtil() {
+    }
+
+    public static boolean isValidLimit(int limit) {
+        return limit > 0 && limit <= MAX_LIMIT;
+    }
+
+    /**
+     * Generates the {@code Link} header pointing to the next page of a keyset paginated list.
+     * The header is only added when the page is full, i.e. when more elements may follow.
+     * @param request the current request
+     * @param page the current page
+     * @param idExtractor extracts the cursor (id) from an element of the page
+     * @param limit requested page size
+     * @return the {@link HttpHeaders}
+     */
+    public static <T> HttpHeaders generateCursorHttpHeaders(ServerHttpRequest request, List<T> page,
+                                                            Function<T, Long> idExtractor, int limit) {
+        final HttpHeaders headers = new HttpHeaders();
+        if (page.size() < limit) {
+            return headers;
+        }
+        final Long nextCursor = idExtractor.apply(page.get(page.size() - 1));
+        final String next = UriComponentsBuilder.fromHttpRequest(request)
+                .replaceQueryParam("after", nextCursor)
+                .replaceQueryParam("limit", limit)
+                .toUriString();
+        headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        return headers;
+    }
+}
@@ -0,0 +1,44 @@
+package com.test.restaurant.reactive.repository;
+
+import com.test.restaurant.reactive.entity.Ingredient;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface IngredientRepository extends R2dbcRepository<Ingredient, Long>, IngredientRepositoryCustom {
+
+    /**
+     * Updates the ingredient and increments its version in a single statement,
+     * if it exists, has the expected version and its current recipe has the expected version.
+     * @param version expected version, {@code null} to update whatever the version
+     * @param recipeVersion expected version of the recipe the ingredient belongs to before the update,
+     * {@code null} to update whatever the version
+     * @return the number of updated rows, 0 if the ingredient does not exist or has another version
+     */
+    @Modifying
+    @Query("UPDATE ingredients SET name = :name, recipe_id = :recipeId, version = version + 1 " +
+            "WHERE id = :id AND (:version IS NULL OR version = :version) " +
+            "AND (:recipeVersion IS NULL OR EXISTS " +
+            "(SELECT 1 FROM recipes r WHERE r.id = ingredients.recipe_id AND r.version = :recipeVersion))")
+    Mono<Integer> updateIfVersionMatches(@Param("id") Long id, @Param("name") String name,
+                                         @Param("recipeId") Long recipeId, @Param("version") Long version,
+                                         @Param("recipeVersion") Long recipeVersion);
+
+    /**
+     * Deletes the ingredient in a single statement, if it exists, has the expected version and its recipe has
+     * the expected version.
+     * @param version expected version, {@code null} to delete whatever the version
+     * @param recipeVersion expected version of the recipe of the ingredient, {@code null} to delete whatever the version
+     * @return the number of deleted rows, 0 if the ingredient does not exist or has another version
+     */
+    @Modifying
+    @Query("DELETE FROM ingredients WHERE id = :id AND (:version IS NULL OR version = :version) " +
+            "AND (:recipeVersion IS NULL OR EXISTS " +
+            "(SELECT 1 FROM recipes r WHERE r.id = ingredients.recipe_id AND r.version = :recipeVersion))")
+    Mono<Integer> deleteIfVersionMatches(@Param("id") Long id, @Param("version") Long version,
+                                         @Param("recipeVersion") Long recipeVersion);
+}
@@ -0,0 +1,29 @@
+package com.test.restaurant.reactive.repository;
+
+import com.test.restaurant.reactive.entity.Ingredient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ingredient queries joining the recipe, so that ingredients come with their recipe in a single statement.
+ */
+public interface IngredientRepositoryCustom {
+
+    /**
+     * Keyset page of ingredients with their recipe: the ones with id greater than {@code after}, ordered by id.
+     */
+    Flux<Ingredient> findPageWithRecipe(long after, int limit);
+
+    /**
+     * All the ingredients with their recipe, ordered by id, emitted as they are read.
+     */
+    Flux<Ingredient> findAllWithRecipe();
+
+    Mono<Ingredient> findWithRecipeById(Long id);
+
+    /**
+     * Inserts the ingredient with an id taken from {@code ingredients_seq}.
+     * @return the ingredient with its id
+     */
+    Mono<Ingredient> insert(Ingredient ingredient);
+}
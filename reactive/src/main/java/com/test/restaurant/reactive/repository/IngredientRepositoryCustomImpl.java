@@ -0,0 +1,77 @@
+package com.test.restaurant.reactive.repository;
+
+import com.test.restaurant.reactive.entity.Ingredient;
+import com.test.restaurant.reactive.entity.Recipe;
+import io.r2dbc.spi.Row;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class IngredientRepositoryCustomImpl implements IngredientRepositoryCustom {
+    private static final String SELECT_WITH_RECIPE = "SELECT i.id, i.name, i.recipe_id, i.version, "
+            + "r.name AS recipe_name, r.description AS recipe_description, r.version AS recipe_version "
+            + "FROM ingredients i JOIN recipes r ON r.id = i.recipe_id";
+
+    private final DatabaseClient databaseClient;
+
+    public IngredientRepositoryCustomImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Ingredient> findPageWithRecipe(long after, int limit) {
+        return databaseClient.execute(SELECT_WITH_RECIPE + " WHERE i.id > :after ORDER BY i.id LIMIT :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(IngredientRepositoryCustomImpl::toIngredient)
+                .all();
+    }
+
+    @Override
+    public Flux<Ingredient> findAllWithRecipe() {
+        return databaseClient.execute(SELECT_WITH_RECIPE + " ORDER BY i.id")
+                .map(IngredientRepositoryCustomImpl::toIngredient)
+                .all();
+    }
+
+    @Override
+    public Mono<Ingredient> findWithRecipeById(Long id) {
+        return databaseClient.execute(SELECT_WITH_RECIPE + " WHERE i.id = :id")
+                .bind("id", id)
+                .map(IngredientRepositoryCustomImpl::toIngredient)
+                .one();
+    }
+
+    /**
+     * Same id allocation as {@link RecipeRepositoryCustomImpl#insert(Recipe)}.
+     */
+    @Override
+    public Mono<Ingredient> insert(Ingredient ingredient) {
+        return databaseClient.execute("SELECT NEXT VALUE FOR ingredients_seq")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> {
+                    ingredient.setId(id);
+                    return databaseClient.insert()
+                            .into(Ingredient.class)
+                            .using(ingredient)
+                            .then()
+                            .thenReturn(ingredient);
+                });
+    }
+
+    private static Ingredient toIngredient(Row row) {
+        final Recipe recipe = new Recipe();
+        recipe.setId(row.get("recipe_id", Long.class));
+        recipe.setName(row.get("recipe_name", String.class));
+        recipe.setDescription(row.get("recipe_description", String.class));
+        recipe.setVersion(row.get("recipe_version", Long.class));
+        final Ingredient ingredient = new Ingredient();
+        ingredient.setId(row.get("id", Long.class));
+        ingredient.setName(row.get("name", String.class));
+        ingredient.setRecipeId(recipe.getId());
+        ingredient.setVersion(row.get("version", Long.class));
+        ingredient.setRecipe(recipe);
+        return ingredient;
+    }
+}
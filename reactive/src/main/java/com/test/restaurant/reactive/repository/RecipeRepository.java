@@ -0,0 +1,44 @@
+package com.test.restaurant.reactive.repository;
+
+import com.test.restaurant.reactive.entity.Recipe;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface RecipeRepository extends R2dbcRepository<Recipe, Long>, RecipeRepositoryCustom {
+
+    /**
+     * Keyset page of recipes: the ones with id greater than {@code after}, ordered by id.
+     */
+    @Query("SELECT * FROM recipes WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<Recipe> findPage(@Param("after") long after, @Param("limit") int limit);
+
+    @Query("SELECT * FROM recipes ORDER BY id")
+    Flux<Recipe> findAllOrderById();
+
+    /**
+     * Updates the recipe and increments its version in a single statement,
+     * if it exists and has the expected version.
+     * @param version expected version, {@code null} to update whatever the version
+     * @return the number of updated rows, 0 if the recipe does not exist or has another version
+     */
+    @Modifying
+    @Query("UPDATE recipes SET name = :name, description = :description, version = version + 1 " +
+            "WHERE id = :id AND (:version IS NULL OR version = :version)")
+    Mono<Integer> updateIfVersionMatches(@Param("id") Long id, @Param("name") String name,
+                                         @Param("description") String description, @Param("version") Long version);
+
+    /**
+     * Deletes the recipe in a single statement, if it exists and has the expected version.
+     * @param version expected version, {@code null} to delete whatever the version
+     * @return the number of deleted rows, 0 if the recipe does not exist or has another version
+     */
+    @Modifying
+    @Query("DELETE FROM recipes WHERE id = :id AND (:version IS NULL OR version = :version)")
+    Mono<Integer> deleteIfVersionMatches(@Param("id") Long id, @Param("version") Long version);
+}
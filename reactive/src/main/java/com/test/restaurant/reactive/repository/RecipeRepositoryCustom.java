@@ -0,0 +1,13 @@
+package com.test.restaurant.reactive.repository;
+
+import com.test.restaurant.reactive.entity.Recipe;
+import reactor.core.publisher.Mono;
+
+public interface RecipeRepositoryCustom {
+
+    /**
+     * Inserts the recipe with an id taken from {@code recipes_seq}.
+     * @return the recipe with its id
+     */
+    Mono<Recipe> insert(Recipe recipe);
+}
@@ -0,0 +1,32 @@
+package com.test.restaurant.reactive.repository;
+
+import com.test.restaurant.reactive.entity.Recipe;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+public class RecipeRepositoryCustomImpl implements RecipeRepositoryCustom {
+    private final DatabaseClient databaseClient;
+
+    public RecipeRepositoryCustomImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * The servlet application reads the sequence as the lowest id of a block of 50 ids (pooled-lo),
+     * so using the sequence value itself as id never collides with the ids it hands out.
+     */
+    @Override
+    public Mono<Recipe> insert(Recipe recipe) {
+        return databaseClient.execute("SELECT NEXT VALUE FOR recipes_seq")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> {
+                    recipe.setId(id);
+                    return databaseClient.insert()
+                            .into(Recipe.class)
+                            .using(recipe)
+                            .then()
+                            .thenReturn(recipe);
+                });
+    }
+}
@@ -0,0 +1,88 @@
+package com.test.restaurant.reactive.service;
+
+import com.test.restaurant.reactive.entity.Ingredient;
+import com.test.restaurant.reactive.repository.IngredientRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class IngredientService {
+    private final IngredientRepository repository;
+
+    public IngredientService(IngredientRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Emits at most {@code limit} ingredients with their recipe, with id greater than {@code after}, ordered by id.
+     * @param after cursor (id of the last ingredient of the previous page), {@code null} for the first page
+     * @param limit page size
+     */
+    public Flux<Ingredient> findPage(Long after, int limit) {
+        return repository.findPageWithRecipe(after == null ? 0L : after, limit);
+    }
+
+    /**
+     * Emits every ingredient with its recipe, ordered by id, as the rows are read:
+     * rows are only fetched as fast as they are consumed.
+     */
+    public Flux<Ingredient> export() {
+        return repository.findAllWithRecipe();
+    }
+
+    public Mono<Ingredient> findById(Long id) {
+        return repository.findWithRecipeById(id);
+    }
+
+    public Mono<Boolean> exists(Long id) {
+        return repository.existsById(id);
+    }
+
+    /**
+     * Creates the ingredient, whose recipe must be set.
+     */
+    public Mono<Ingredient> create(Ingredient ingredient) {
+        ingredient.setId(null);
+        ingredient.setVersion(0);
+        return repository.insert(ingredient);
+    }
+
+    /**
+     * Updates the name and the recipe of the ingredient with a single UPDATE statement,
+     * which checks both that the ingredient exists and that it has the expected versions.
+     * @param ingredient the ingredient, whose recipe must be set
+     * @param expectedVersion version the ingredient must have, {@code null} to update whatever the version
+     * @param expectedRecipeVersion version the recipe of the ingredient must have before the update,
+     * {@code null} to update whatever the version
+     * @return the updated ingredient with its recipe and its new version,
+     * empty if it does not exist or has another version
+     */
+    @Transactional
+    public Mono<Ingredient> update(Ingredient ingredient, Long expectedVersion, Long expectedRecipeVersion) {
+        return repository.updateIfVersionMatches(ingredient.getId(), ingredient.getName(), ingredient.getRecipeId(),
+                expectedVersion, expectedRecipeVersion)
+                .filter(updated -> updated > 0)
+                .flatMap(updated -> {
+                    if (expectedVersion == null) {
+                        return repository.findWithRecipeById(ingredient.getId());
+                    }
+                    ingredient.setVersion(expectedVersion + 1);
+                    return Mono.just(ingredient);
+                });
+    }
+
+    /**
+     * Deletes the ingredient with a single DELETE statement, which checks both that the ingredient exists
+     * and that it has the expected versions.
+     * @param expectedVersion version the ingredient must have, {@code null} to delete whatever the version
+     * @param expectedRecipeVersion version the recipe of the ingredient must have, {@code null} to delete whatever
+     * the version
+     * @return {@code true} if the ingredient was deleted, {@code false} if it does not exist or has another version
+     */
+    public Mono<Boolean> delete(Long id, Long expectedVersion, Long expectedRecipeVersion) {
+        return repository.deleteIfVersionMatches(id, expectedVersion, expectedRecipeVersion)
+                .map(deleted -> deleted > 0);
+    }
+}
@@ -0,0 +1,77 @@
+package com.test.restaurant.reactive.service;
+
+import com.test.restaurant.reactive.entity.Recipe;
+import com.test.restaurant.reactive.repository.RecipeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public class RecipeService {
+    private final RecipeRepository repository;
+
+    public RecipeService(RecipeRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Emits at most {@code limit} recipes with id greater than {@code after}, ordered by id.
+     * @param after cursor (id of the last recipe of the previous page), {@code null} for the first page
+     * @param limit page size
+     */
+    public Flux<Recipe> findPage(Long after, int limit) {
+        return repository.findPage(after == null ? 0L : after, limit);
+    }
+
+    /**
+     * Emits every recipe, ordered by id, as the rows are read: rows are only fetched as fast as they are consumed.
+     */
+    public Flux<Recipe> export() {
+        return repository.findAllOrderById();
+    }
+
+    public Mono<Recipe> findById(Long id) {
+        return repository.findById(id);
+    }
+
+    public Mono<Boolean> exists(Long id) {
+        return repository.existsById(id);
+    }
+
+    public Mono<Recipe> create(Recipe recipe) {
+        recipe.setId(null);
+        recipe.setVersion(0);
+        return repository.insert(recipe);
+    }
+
+    /**
+     * Updates the name and the description of the recipe with a single UPDATE statement,
+     * which checks both that the recipe exists and that it has the expected version.
+     * @param expectedVersion version the recipe must have, {@code null} to update whatever the version
+     * @return the updated recipe with its new version, empty if it does not exist or has another version
+     */
+    @Transactional
+    public Mono<Recipe> update(Recipe recipe, Long expectedVersion) {
+        return repository.updateIfVersionMatches(recipe.getId(), recipe.getName(), recipe.getDescription(), expectedVersion)
+                .filter(updated -> updated > 0)
+                .flatMap(updated -> {
+                    if (expectedVersion == null) {
+                        return repository.findById(recipe.getId());
+                    }
+                    recipe.setVersion(expectedVersion + 1);
+                    return Mono.just(recipe);
+                });
+    }
+
+    /**
+     * Deletes the recipe with a single DELETE statement, which checks both that the recipe exists
+     * and that it has the expected version.
+     * @param expectedVersion version the recipe must have, {@code null} to delete whatever the version
+     * @return {@code true} if the recipe was deleted, {@code false} if it does not exist or has another version
+     */
+    public Mono<Boolean> delete(Long id, Long expectedVersion) {
+        return repository.deleteIfVersionMatches(id, expectedVersion)
+                .map(deleted -> deleted > 0);
+    }
+}
@@ -0,0 +1,57 @@
+package com.test.restaurant.reactive.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+
+public class IngredientDTO {
+    private Long id;
+
+    @NotBlank
+    @Size(min = 1, max = 40)
+    private String name;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private RecipeDTO recipe;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long recipeId;
+
+
+    public IngredientDTO() {
+    }
+
+
+    public RecipeDTO getRecipe() {
+        return recipe;
+    }
+
+    public void setRecipe(RecipeDTO recipe) {
+        this.recipe = recipe;
+    }
+
+    public Long getRecipeId() {
+        return recipeId;
+    }
+
+    public void setRecipeId(Long recipeId) {
+        this.recipeId = recipeId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,40 @@
+package com.test.restaurant.reactive.service.dto;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+
+public class RecipeDTO {
+    private Long id;
+
+    @NotBlank
+    @Size(min = 1, max = 40)
+    private String name;
+
+    @NotBlank
+    @Size(min = 1, max = 40)
+    private String description;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
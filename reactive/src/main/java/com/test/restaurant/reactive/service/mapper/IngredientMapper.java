@@ -0,0 +1,42 @@
+package com.test.restaurant.reactive.service.mapper;
+
+import com.test.restaurant.reactive.entity.Ingredient;
+import com.test.restaurant.reactive.service.dto.IngredientDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps {@link Ingredient} to {@link IngredientDTO} and back with plain getter/setter calls.
+ */
+@Component
+public class IngredientMapper {
+    private final RecipeMapper recipeMapper;
+
+    public IngredientMapper(RecipeMapper recipeMapper) {
+        this.recipeMapper = recipeMapper;
+    }
+
+    /**
+     * @param embedRecipe whether to embed the recipe or to set only the {@code recipeId}
+     */
+    public IngredientDTO toDto(Ingredient ingredient, boolean embedRecipe) {
+        final IngredientDTO ingredientDTO = new IngredientDTO();
+        ingredientDTO.setId(ingredient.getId());
+        ingredientDTO.setName(ingredient.getName());
+        ingredientDTO.setRecipeId(ingredient.getRecipeId());
+        if (embedRecipe && ingredient.getRecipe() != null) {
+            ingredientDTO.setRecipe(recipeMapper.toDto(ingredient.getRecipe()));
+        }
+        return ingredientDTO;
+    }
+
+    /**
+     * The recipe id is taken from the embedded recipe if any, from {@code recipeId} otherwise.
+     */
+    public Ingredient toEntity(IngredientDTO ingredientDTO) {
+        final Ingredient ingredient = new Ingredient();
+        ingredient.setId(ingredientDTO.getId());
+        ingredient.setName(ingredientDTO.getName());
+        ingredient.setRecipeId(ingredientDTO.getRecipe() != null ? ingredientDTO.getRecipe().getId() : ingredientDTO.getRecipeId());
+        return ingredient;
+    }
+}
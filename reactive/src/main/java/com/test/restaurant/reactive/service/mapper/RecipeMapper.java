@@ -0,0 +1,28 @@
+package com.test.restaurant.reactive.service.mapper;
+
+import com.test.restaurant.reactive.entity.Recipe;
+import com.test.restaurant.reactive.service.dto.RecipeDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps {@link Recipe} to {@link RecipeDTO} and back with plain getter/setter calls.
+ */
+@Component
+public class RecipeMapper {
+
+    public RecipeDTO toDto(Recipe recipe) {
+        final RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setId(recipe.getId());
+        recipeDTO.setName(recipe.getName());
+        recipeDTO.setDescription(recipe.getDescription());
+        return recipeDTO;
+    }
+
+    public Recipe toEntity(RecipeDTO recipeDTO) {
+        final Recipe recipe = new Recipe();
+        recipe.setId(recipeDTO.getId());
+        recipe.setName(recipeDTO.getName());
+        recipe.setDescription(recipeDTO.getDescription());
+        return recipe;
+    }
+}
@@ -0,0 +1,167 @@
+package com.test.restaurant.reactive.controller;
+
+import com.test.restaurant.reactive.ReactiveRestaurantApplication;
+import com.test.restaurant.reactive.entity.Ingredient;
+import com.test.restaurant.reactive.entity.Recipe;
+import com.test.restaurant.reactive.repository.IngredientRepository;
+import com.test.restaurant.reactive.repository.RecipeRepository;
+import com.test.restaurant.reactive.service.dto.IngredientDTO;
+import com.test.restaurant.reactive.service.dto.RecipeDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// every test context gets its own in-memory database, initialized by the schema and data scripts
+@SpringBootTest(classes = ReactiveRestaurantApplication.class,
+        properties = "restaurant.r2dbc.url=r2dbc:pool:h2:mem:///${random.uuid}?options=DB_CLOSE_DELAY=-1")
+@AutoConfigureWebTestClient
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class IngredientControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    private Recipe recipe;
+
+    private Ingredient ingredient;
+
+    @BeforeEach
+    public void initTest() {
+        final Recipe newRecipe = new Recipe();
+        newRecipe.setName("Soup " + System.nanoTime());
+        newRecipe.setDescription("Soup Description");
+        recipe = recipeRepository.insert(newRecipe).block();
+
+        final Ingredient newIngredient = new Ingredient();
+        newIngredient.setName("Onion " + System.nanoTime());
+        newIngredient.setRecipeId(recipe.getId());
+        ingredient = ingredientRepository.insert(newIngredient).block();
+    }
+
+    @Test
+    public void getIngredient() {
+        webTestClient.get().uri("/ingredients/{id}", ingredient.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0-0\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(ingredient.getName())
+                .jsonPath("$.recipe.name").isEqualTo(recipe.getName())
+                .jsonPath("$.recipeId").isEqualTo(recipe.getId().intValue());
+
+        webTestClient.get().uri("/ingredients/{id}?embedRecipe=false", ingredient.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.recipe").doesNotExist()
+                .jsonPath("$.recipeId").isEqualTo(recipe.getId().intValue());
+    }
+
+    @Test
+    public void getIngredientsPage() {
+        final List<IngredientDTO> ingredients = webTestClient.get().uri("/ingredients?after=1&limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches(HttpHeaders.LINK, ".*after=3.*rel=\"next\"")
+                .expectBodyList(IngredientDTO.class)
+                .returnResult().getResponseBody();
+        assertThat(ingredients).extracting(IngredientDTO::getId).containsExactly(2L, 3L);
+        assertThat(ingredients).extracting(dto -> dto.getRecipe().getName()).containsExactly("Steak", "Pizza");
+    }
+
+    @Test
+    public void createIngredient() {
+        final IngredientDTO ingredientDTO = new IngredientDTO();
+        ingredientDTO.setName("Garlic " + System.nanoTime());
+        ingredientDTO.setRecipeId(recipe.getId());
+
+        webTestClient.post().uri("/ingredients")
+                .bodyValue(ingredientDTO)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isNotEmpty()
+                .jsonPath("$.recipe.name").isEqualTo(recipe.getName());
+    }
+
+    @Test
+    public void createIngredientWithNonExistingRecipe() {
+        final RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setId(Long.MAX_VALUE);
+        final IngredientDTO ingredientDTO = new IngredientDTO();
+        ingredientDTO.setName("Garlic");
+        ingredientDTO.setRecipe(recipeDTO);
+
+        webTestClient.post().uri("/ingredients")
+                .bodyValue(ingredientDTO)
+                .exchange()
+                .expectStatus().isEqualTo(422);
+    }
+
+    @Test
+    public void updateIngredient() {
+        final IngredientDTO ingredientDTO = new IngredientDTO();
+        ingredientDTO.setName(ingredient.getName() + "_NEW");
+        ingredientDTO.setRecipeId(2L);
+
+        webTestClient.put().uri("/ingredients/{id}", ingredient.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0-0\"")
+                .bodyValue(ingredientDTO)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1-0\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(ingredient.getName() + "_NEW")
+                .jsonPath("$.recipe.name").isEqualTo("Steak");
+
+        webTestClient.put().uri("/ingredients/{id}", ingredient.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0-0\"")
+                .bodyValue(ingredientDTO)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        ingredientDTO.setRecipeId(Long.MAX_VALUE);
+        webTestClient.put().uri("/ingredients/{id}", ingredient.getId())
+                .bodyValue(ingredientDTO)
+                .exchange()
+                .expectStatus().isEqualTo(422);
+        webTestClient.put().uri("/ingredients/{id}", Long.MAX_VALUE)
+                .bodyValue(ingredientDTO)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void deleteIngredient() {
+        webTestClient.delete().uri("/ingredients/{id}", ingredient.getId())
+                .header(HttpHeaders.IF_MATCH, "\"1-0\"")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient.delete().uri("/ingredients/{id}", ingredient.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0-0\"")
+                .exchange()
+                .expectStatus().isOk();
+        assertThat(ingredientRepository.existsById(ingredient.getId()).block()).isFalse();
+
+        webTestClient.delete().uri("/ingredients/{id}", ingredient.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,162 @@
+package com.test.restaurant.reactive.controller;
+
+import com.test.restaurant.reactive.ReactiveRestaurantApplication;
+import com.test.restaurant.reactive.entity.Recipe;
+import com.test.restaurant.reactive.repository.RecipeRepository;
+import com.test.restaurant.reactive.service.dto.RecipeDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// every test context gets its own in-memory database, initialized by the schema and data scripts
+@SpringBootTest(classes = ReactiveRestaurantApplication.class,
+        properties = "restaurant.r2dbc.url=r2dbc:pool:h2:mem:///${random.uuid}?options=DB_CLOSE_DELAY=-1")
+@AutoConfigureWebTestClient
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class RecipeControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    private Recipe recipe;
+
+    @BeforeEach
+    public void initTest() {
+        final Recipe newRecipe = new Recipe();
+        newRecipe.setName("Soup " + System.nanoTime());
+        newRecipe.setDescription("Soup Description");
+        recipe = recipeRepository.insert(newRecipe).block();
+    }
+
+    @Test
+    public void getRecipe() {
+        webTestClient.get().uri("/recipes/{id}", recipe.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(recipe.getId().intValue())
+                .jsonPath("$.name").isEqualTo(recipe.getName());
+    }
+
+    @Test
+    public void getRecipeNotModified() {
+        webTestClient.get().uri("/recipes/{id}", recipe.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    public void getNonExistingRecipe() {
+        webTestClient.get().uri("/recipes/{id}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void getRecipesPage() {
+        final List<RecipeDTO> recipes = webTestClient.get().uri("/recipes?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches(HttpHeaders.LINK, ".*after=2.*rel=\"next\"")
+                .expectBodyList(RecipeDTO.class)
+                .returnResult().getResponseBody();
+        assertThat(recipes).extracting(RecipeDTO::getId).containsExactly(1L, 2L);
+
+        webTestClient.get().uri("/recipes?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void exportRecipes() {
+        final String body = webTestClient.get().uri("/recipes/export")
+                .accept(MediaType.parseMediaType("application/x-ndjson"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.parseMediaType("application/x-ndjson"))
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+        // one recipe per line
+        assertThat(body.split("\n")).hasSizeGreaterThanOrEqualTo(4)
+                .anyMatch(line -> line.contains("\"name\":\"Sauce\""))
+                .anyMatch(line -> line.contains("\"id\":" + recipe.getId() + ","));
+    }
+
+    @Test
+    public void createRecipe() {
+        final RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setName("Salad");
+        recipeDTO.setDescription("Salad Description");
+
+        final RecipeDTO created = webTestClient.post().uri("/recipes")
+                .bodyValue(recipeDTO)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(RecipeDTO.class)
+                .returnResult().getResponseBody();
+        assertThat(created.getId()).isNotNull();
+        assertThat(recipeRepository.findById(created.getId()).block().getName()).isEqualTo("Salad");
+    }
+
+    @Test
+    public void updateRecipeIfMatch() {
+        final RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setName(recipe.getName() + "_NEW");
+        recipeDTO.setDescription("Soup Description");
+
+        webTestClient.put().uri("/recipes/{id}", recipe.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(recipeDTO)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo(recipe.getName() + "_NEW");
+
+        // the ETag sent back is stale now
+        webTestClient.put().uri("/recipes/{id}", recipe.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(recipeDTO)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient.put().uri("/recipes/{id}", Long.MAX_VALUE)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(recipeDTO)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void deleteRecipe() {
+        webTestClient.delete().uri("/recipes/{id}", recipe.getId())
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient.delete().uri("/recipes/{id}", recipe.getId())
+                .exchange()
+                .expectStatus().isOk();
+        assertThat(recipeRepository.existsById(recipe.getId()).block()).isFalse();
+
+        webTestClient.delete().uri("/recipes/{id}", recipe.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
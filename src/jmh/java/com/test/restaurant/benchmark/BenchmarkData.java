@@ -0,0 +1,48 @@
+package com.test.restaurant.benchmark;
+
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.IngredientService;
+import com.test.restaurant.service.RecipeService;
+import org.springframework.context.ApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the database of a benchmark application through the batch upserts.
+ */
+final class BenchmarkData {
+    private static final int BATCH_SIZE = 1000;
+    private static final int INGREDIENTS_PER_RECIPE = 10;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates {@code rows} ingredients, spread over one recipe every {@value #INGREDIENTS_PER_RECIPE} ingredients.
+     */
+    static void createIngredients(ApplicationContext context, int rows) {
+        final RecipeService recipeService = context.getBean(RecipeService.class);
+        final IngredientService ingredientService = context.getBean(IngredientService.class);
+        for (int start = 0; start < rows; start += BATCH_SIZE) {
+            final int end = Math.min(rows, start + BATCH_SIZE);
+            final List<Recipe> recipes = new ArrayList<>();
+            for (int i = start; i < end; i += INGREDIENTS_PER_RECIPE) {
+                final Recipe recipe = new Recipe();
+                recipe.setName("Recipe " + i);
+                recipe.setDescription("Description of recipe " + i);
+                recipes.add(recipe);
+            }
+            final List<Recipe> savedRecipes = recipeService.upsertAll(recipes);
+            final List<Ingredient> ingredients = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                final Ingredient ingredient = new Ingredient();
+                ingredient.setName("Ingredient " + i);
+                ingredient.setRecipe(savedRecipes.get((i - start) / INGREDIENTS_PER_RECIPE));
+                ingredients.add(ingredient);
+            }
+            ingredientService.upsertAll(ingredients);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.test.restaurant.benchmark;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.config.CacheConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@code GET /ingredients} path over HTTP: Tomcat, controller, service (with the page cache
+ * or cleared before every request), mapping and Jackson serialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GetAllIngredientsBenchmark {
+    private static final int ROWS = 10000;
+
+    @Param({"100", "1000"})
+    private int limit;
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private ServletWebServerApplicationContext context;
+
+    private HttpClient client;
+
+    private HttpRequest request;
+
+    private Cache ingredientListCache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(RestaurantApplication.class)
+                .properties("spring.datasource.url=jdbc:h2:mem:getAllBenchmark", "server.port=0", "logging.level.root=warn")
+                .run();
+        BenchmarkData.createIngredients(context, ROWS);
+        ingredientListCache = context.getBean(CacheManager.class).getCache(CacheConfiguration.INGREDIENT_LISTS);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + context.getWebServer().getPort() + "/ingredients?limit=" + limit))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getAllIngredients() throws IOException, InterruptedException {
+        if (!cached) {
+            ingredientListCache.clear();
+        }
+        final HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /ingredients answered " + response.statusCode());
+        }
+        return response.body();
+    }
+}
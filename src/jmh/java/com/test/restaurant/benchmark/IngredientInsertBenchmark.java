@@ -0,0 +1,89 @@
+package com.test.restaurant.benchmark;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.IngredientService;
+import com.test.restaurant.service.RecipeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows inserted per second through the single item path ({@code POST /ingredients}: recipe lookup and insert per row)
+ * and through the batch path ({@code POST /ingredients/batch}: one recipe query and batched inserts).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IngredientInsertBenchmark {
+    private static final int ROWS = 100;
+    private static final long RECIPE_ID = 1L;
+
+    private ConfigurableApplicationContext context;
+
+    private IngredientService ingredientService;
+
+    private RecipeService recipeService;
+
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(RestaurantApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:insertBenchmark", "logging.level.root=warn")
+                .run();
+        ingredientService = context.getBean(IngredientService.class);
+        recipeService = context.getBean(RecipeService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void singleInserts() {
+        for (int i = 0; i < ROWS; i++) {
+            final Ingredient ingredient = createIngredient();
+            ingredient.setRecipe(recipeService.findById(RECIPE_ID));
+            ingredientService.save(ingredient);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Ingredient> batchInsert() {
+        final Recipe recipe = recipeService.findAllById(Collections.singleton(RECIPE_ID)).get(0);
+        final List<Ingredient> ingredients = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            final Ingredient ingredient = createIngredient();
+            ingredient.setRecipe(recipe);
+            ingredients.add(ingredient);
+        }
+        return ingredientService.upsertAll(ingredients);
+    }
+
+    private Ingredient createIngredient() {
+        final Ingredient ingredient = new Ingredient();
+        ingredient.setName("Ingredient " + sequence++);
+        return ingredient;
+    }
+}
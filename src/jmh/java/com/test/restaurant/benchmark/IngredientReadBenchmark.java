@@ -0,0 +1,70 @@
+package com.test.restaurant.benchmark;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.config.CacheConfiguration;
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.service.IngredientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IngredientService#findAll()} against H2 (ingredients and recipes in one statement, then entity hydration)
+ * and from the ingredient list cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IngredientReadBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private IngredientService ingredientService;
+
+    private Cache ingredientListCache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(RestaurantApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:readBenchmark", "logging.level.root=warn")
+                .run();
+        BenchmarkData.createIngredients(context, rows);
+        ingredientService = context.getBean(IngredientService.class);
+        ingredientListCache = context.getBean(CacheManager.class).getCache(CacheConfiguration.INGREDIENT_LISTS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Ingredient> findAll() {
+        ingredientListCache.clear();
+        return ingredientService.findAll();
+    }
+
+    @Benchmark
+    public List<Ingredient> findAllCached() {
+        return ingredientService.findAll();
+    }
+}
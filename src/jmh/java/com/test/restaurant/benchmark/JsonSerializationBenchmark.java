@@ -0,0 +1,66 @@
+package com.test.restaurant.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.dto.IngredientDTO;
+import com.test.restaurant.service.mapper.IngredientMapper;
+import com.test.restaurant.service.mapper.IngredientMapperImpl;
+import com.test.restaurant.service.mapper.RecipeMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a page of {@link IngredientDTO}s, as done for {@code GET /ingredients},
+ * with an {@link ObjectMapper} configured like the one of the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    @Param({"true", "false"})
+    private boolean embedRecipe;
+
+    private ObjectMapper objectMapper;
+
+    private List<IngredientDTO> ingredientDTOS;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        final IngredientMapper ingredientMapper = new IngredientMapperImpl(new RecipeMapperImpl());
+        ingredientDTOS = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final Recipe recipe = new Recipe();
+            recipe.setId((long) i / 10);
+            recipe.setName("Recipe " + i / 10);
+            recipe.setDescription("Description of recipe " + i / 10);
+            final Ingredient ingredient = new Ingredient();
+            ingredient.setId((long) i);
+            ingredient.setName("Ingredient " + i);
+            ingredient.setRecipe(recipe);
+            ingredientDTOS.add(ingredientMapper.toDto(ingredient, embedRecipe));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeIngredients() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ingredientDTOS);
+    }
+}
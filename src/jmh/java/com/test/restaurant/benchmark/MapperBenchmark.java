@@ -0,0 +1,90 @@
+package com.test.restaurant.benchmark;
+
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.dto.IngredientDTO;
+import com.test.restaurant.service.dto.RecipeDTO;
+import com.test.restaurant.service.mapper.IngredientMapper;
+import com.test.restaurant.service.mapper.IngredientMapperImpl;
+import com.test.restaurant.service.mapper.Mapper;
+import com.test.restaurant.service.mapper.ModelMapperIngredientMapper;
+import com.test.restaurant.service.mapper.ModelMapperRecipeMapper;
+import com.test.restaurant.service.mapper.RecipeMapper;
+import com.test.restaurant.service.mapper.RecipeMapperImpl;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand-written mappers with the {@link ModelMapper} backed ones.
+ * Run with the {@code gc} profiler to get the bytes allocated per operation ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    @Param({"direct", "modelmapper"})
+    private String implementation;
+
+    private RecipeMapper recipeMapper;
+
+    private IngredientMapper ingredientMapper;
+
+    private Recipe recipe;
+
+    private Ingredient ingredient;
+
+    private IngredientDTO ingredientDTO;
+
+    @Setup
+    public void setup() {
+        if ("direct".equals(implementation)) {
+            recipeMapper = new RecipeMapperImpl();
+            ingredientMapper = new IngredientMapperImpl(recipeMapper);
+        } else {
+            final ModelMapper modelMapper = new Mapper().modelMapper();
+            recipeMapper = new ModelMapperRecipeMapper(modelMapper);
+            ingredientMapper = new ModelMapperIngredientMapper(modelMapper);
+        }
+
+        recipe = new Recipe();
+        recipe.setId(1L);
+        recipe.setName("Sauce");
+        recipe.setDescription("Sauce Description");
+
+        ingredient = new Ingredient();
+        ingredient.setId(1L);
+        ingredient.setName("Tomato");
+        ingredient.setRecipe(recipe);
+
+        ingredientDTO = new IngredientDTO();
+        ingredientDTO.setName("Tomato");
+        final RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setId(1L);
+        ingredientDTO.setRecipe(recipeDTO);
+    }
+
+    @Benchmark
+    public RecipeDTO recipeToDto() {
+        return recipeMapper.toDto(recipe);
+    }
+
+    @Benchmark
+    public IngredientDTO ingredientToDto() {
+        return ingredientMapper.toDto(ingredient);
+    }
+
+    @Benchmark
+    public Ingredient ingredientToEntity() {
+        return ingredientMapper.toEntity(ingredientDTO);
+    }
+}
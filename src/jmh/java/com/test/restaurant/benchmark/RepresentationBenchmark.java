@@ -0,0 +1,105 @@
+package com.test.restaurant.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.dto.IngredientDTO;
+import com.test.restaurant.service.dto.IngredientListDTO;
+import com.test.restaurant.service.dto.RecipeDTO;
+import com.test.restaurant.service.mapper.IngredientMapper;
+import com.test.restaurant.service.mapper.IngredientMapperImpl;
+import com.test.restaurant.service.mapper.RecipeMapper;
+import com.test.restaurant.service.mapper.RecipeMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading a page of ingredients, as sent by {@code GET /ingredients}, in each negotiable format:
+ * the recipes embedded in every ingredient, or normalized ({@code normalized=true}) and sent once.
+ * The size of the page in each format and shape is printed at the start of every trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepresentationBenchmark {
+    private static final int INGREDIENTS_PER_RECIPE = 10;
+
+    @Param({"1000"})
+    private int size;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean normalized;
+
+    private ObjectMapper objectMapper;
+
+    private Object page;
+
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = createObjectMapper(format);
+        final RecipeMapper recipeMapper = new RecipeMapperImpl();
+        final IngredientMapper ingredientMapper = new IngredientMapperImpl(recipeMapper);
+        final List<IngredientDTO> ingredientDTOS = new ArrayList<>(size);
+        final Map<Long, RecipeDTO> recipeDTOS = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            final Recipe recipe = new Recipe();
+            recipe.setId((long) i / INGREDIENTS_PER_RECIPE);
+            recipe.setName("Recipe " + i / INGREDIENTS_PER_RECIPE);
+            recipe.setDescription("Description of recipe " + i / INGREDIENTS_PER_RECIPE);
+            final Ingredient ingredient = new Ingredient();
+            ingredient.setId((long) i);
+            ingredient.setName("Ingredient " + i);
+            ingredient.setRecipe(recipe);
+            ingredientDTOS.add(ingredientMapper.toDto(ingredient, !normalized));
+            recipeDTOS.computeIfAbsent(recipe.getId(), id -> recipeMapper.toDto(recipe));
+        }
+        page = normalized ? new IngredientListDTO(new ArrayList<>(recipeDTOS.values()), ingredientDTOS) : ingredientDTOS;
+        serialized = objectMapper.writeValueAsBytes(page);
+        System.out.println("Page of " + size + " ingredients in " + format + (normalized ? ", normalized: " : ": ")
+                + serialized.length + " bytes");
+    }
+
+    private static ObjectMapper createObjectMapper(String format) {
+        switch (format) {
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile":
+                return Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default:
+                return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Object read() throws IOException {
+        return normalized
+                ? objectMapper.readValue(serialized, IngredientListDTO.class)
+                : objectMapper.readValue(serialized, IngredientDTO[].class);
+    }
+}
@@ -0,0 +1,147 @@
+package com.test.restaurant.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator used to compare the servlet and the reactive serving modes.
+ * Every virtual user sends a request, waits for the response and immediately sends the next one,
+ * so {@code concurrency} requests are always in flight. Requests are sent asynchronously from a few threads,
+ * so the generator itself does not need a thread per virtual user.
+ * <p>
+ * Usage: {@code LoadTest <url> [concurrency=64] [duration seconds=30] [warm-up seconds=10]}
+ * <p>
+ * Prints the throughput, the latency percentiles and the number of errors (non 2xx responses and I/O failures)
+ * measured after the warm-up.
+ */
+public final class LoadTest {
+    private final HttpClient client;
+    private final HttpRequest request;
+    private final int concurrency;
+
+    private LoadTest(URI uri, int concurrency) {
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, Runtime.getRuntime().availableProcessors()));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        this.concurrency = concurrency;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: LoadTest <url> [concurrency] [duration seconds] [warm-up seconds]");
+            System.exit(1);
+        }
+        final URI uri = URI.create(args[0]);
+        final int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        final int duration = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        final int warmUp = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        final LoadTest loadTest = new LoadTest(uri, concurrency);
+        if (warmUp > 0) {
+            loadTest.run(Duration.ofSeconds(warmUp));
+        }
+        final Result result = loadTest.run(Duration.ofSeconds(duration));
+        System.out.println("url:          " + uri);
+        System.out.println("concurrency:  " + concurrency);
+        System.out.println(result);
+        System.exit(0);
+    }
+
+    private Result run(Duration duration) throws InterruptedException {
+        final long start = System.nanoTime();
+        final long deadline = start + duration.toNanos();
+        final VirtualUser[] users = new VirtualUser[concurrency];
+        final CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            users[i] = new VirtualUser(deadline, done);
+            users[i].send();
+        }
+        done.await();
+        final long elapsed = System.nanoTime() - start;
+        return new Result(users, elapsed);
+    }
+
+    private final class VirtualUser {
+        private final long deadline;
+        private final CountDownLatch done;
+        private long[] latencies = new long[1024];
+        private int count;
+        private final AtomicLong errors = new AtomicLong();
+
+        private VirtualUser(long deadline, CountDownLatch done) {
+            this.deadline = deadline;
+            this.done = done;
+        }
+
+        private void send() {
+            final long sent = System.nanoTime();
+            if (sent >= deadline) {
+                done.countDown();
+                return;
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        if (failure != null || response.statusCode() / 100 != 2) {
+                            errors.incrementAndGet();
+                        } else {
+                            record(System.nanoTime() - sent);
+                        }
+                        send();
+                    });
+        }
+
+        private void record(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+    }
+
+    private static final class Result {
+        private final long[] latencies;
+        private final long errors;
+        private final long elapsed;
+
+        private Result(VirtualUser[] users, long elapsed) {
+            this.latencies = Arrays.stream(users)
+                    .flatMapToLong(user -> Arrays.stream(user.latencies, 0, user.count))
+                    .sorted()
+                    .toArray();
+            this.errors = Arrays.stream(users).mapToLong(user -> user.errors.get()).sum();
+            this.elapsed = elapsed;
+        }
+
+        private double percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            final int index = (int) Math.ceil(p * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            final double seconds = elapsed / 1_000_000_000.0;
+            return String.format("requests:     %d (%d errors) in %.1f s%n", latencies.length, errors, seconds)
+                    + String.format("throughput:   %.0f req/s%n", latencies.length / seconds)
+                    + String.format("latency (ms): p50 %.2f, p90 %.2f, p99 %.2f, max %.2f",
+                    percentile(0.5), percentile(0.9), percentile(0.99), percentile(1.0));
+        }
+    }
+}
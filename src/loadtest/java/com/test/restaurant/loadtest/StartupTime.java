@@ -0,0 +1,105 @@
+package com.test.restaurant.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cold start of the application: the time from the launch of its process to the first successful
+ * response of {@code path}, polled every 10 ms. Every run launches a new process on a free port, appended to the command
+ * as {@code --server.port}, and stops it once it answered.
+ * <p>
+ * Usage: {@code StartupTime <runs> <path> <command...>}, e.g. {@code StartupTime 5 /recipes java -jar restaurant.jar}
+ * <p>
+ * Prints the time of every run, then the minimum, the median and the maximum.
+ */
+public final class StartupTime {
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3) {
+            System.err.println("Usage: StartupTime <runs> <path> <command...>");
+            System.exit(1);
+        }
+        final int runs = Integer.parseInt(args[0]);
+        final String path = args[1];
+        final List<String> command = Arrays.asList(args).subList(2, args.length);
+
+        final StartupTime startupTime = new StartupTime();
+        final long[] times = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            times[i] = startupTime.run(command, path);
+            System.out.println("run " + (i + 1) + ": " + times[i] + " ms");
+        }
+        Arrays.sort(times);
+        System.out.println("command: " + String.join(" ", command));
+        System.out.println("min:     " + times[0] + " ms");
+        System.out.println("median:  " + times[runs / 2] + " ms");
+        System.out.println("max:     " + times[runs - 1] + " ms");
+        System.exit(0);
+    }
+
+    /**
+     * @return milliseconds from the launch of the process to its first successful response
+     */
+    private long run(List<String> command, String path) throws IOException, InterruptedException {
+        final int port = freePort();
+        final List<String> arguments = new ArrayList<>(command);
+        arguments.add("--server.port=" + port);
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+
+        final long start = System.nanoTime();
+        final Process process = new ProcessBuilder(arguments)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with code " + process.exitValue() + " before answering");
+                }
+                if (isSuccessful(request)) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("Application did not answer within " + TIMEOUT.getSeconds() + " s");
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private boolean isSuccessful(HttpRequest request) throws InterruptedException {
+        try {
+            final int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return status >= 200 && status < 300;
+        } catch (IOException e) {
+            // not listening yet
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+#!/bin/sh
+# Training run of the AppCDS archive: starts the application with the class path of the image, waits for its first
+# successful GET /recipes, stops it, then dumps the classes it loaded into app.jsa.
+set -e
+
+java -XX:DumpLoadedClassList=app.classlist -cp "$(cat classpath)" com.test.restaurant.RestaurantApplication &
+pid=$!
+for i in $(seq 1 600); do
+  if wget -q -O /dev/null http://localhost:8080/recipes; then
+    break
+  fi
+  sleep 0.1
+done
+kill "$pid"
+wait "$pid" || true
+
+java -Xshare:dump -XX:SharedClassListFile=app.classlist -XX:SharedArchiveFile=app.jsa -cp "$(cat classpath)"
+rm app.classlist
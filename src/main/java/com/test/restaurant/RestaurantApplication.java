@@ -1,9 +1,12 @@
 package com.test.restaurant;
 
+import com.test.restaurant.config.ApplicationProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
+@EnableConfigurationProperties(ApplicationProperties.class)
 public class RestaurantApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,40 @@
+package com.test.restaurant.config;
+
+import com.test.restaurant.config.admission.AdaptiveLimiter;
+import com.test.restaurant.config.admission.AdmissionInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Admission control of the recipe and ingredient controllers, see {@link AdmissionInterceptor}.
+ * The exports are left out: they stream for as long as the tables take to read, whatever the load.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "restaurant.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfiguration implements WebMvcConfigurer {
+    private final AdmissionInterceptor admissionInterceptor;
+
+    public AdmissionConfiguration(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        final ApplicationProperties.Admission properties = applicationProperties.getAdmission();
+        this.admissionInterceptor = new AdmissionInterceptor(
+                () -> new AdaptiveLimiter(properties.getInitialLimit(), properties.getMinLimit(), properties.getMaxLimit(),
+                        properties.getTolerance()),
+                properties.getRetryAfter().getSeconds(), meterRegistry);
+    }
+
+    @Bean
+    public AdmissionInterceptor admissionInterceptor() {
+        return admissionInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionInterceptor)
+                .addPathPatterns("/recipes/**", "/ingredients/**")
+                .excludePathPatterns("/recipes/export", "/ingredients/export");
+    }
+}
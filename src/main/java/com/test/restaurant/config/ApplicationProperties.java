@@ -0,0 +1,504 @@
+package com.test.restaurant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Properties specific to the restaurant application, configured under the {@code restaurant} prefix.
+ */
+@ConfigurationProperties(prefix = "restaurant")
+public class ApplicationProperties {
+
+    private final Cache cache = new Cache();
+
+    private final Export export = new Export();
+
+    private final Ingestion ingestion = new Ingestion();
+
+    private final BatchLoader batchLoader = new BatchLoader();
+
+    private final WarmUp warmUp = new WarmUp();
+
+    private final ResponseCache responseCache = new ResponseCache();
+
+    private final ChangeFeed changeFeed = new ChangeFeed();
+
+    private final Admission admission = new Admission();
+
+    private final SecondLevelCache secondLevelCache = new SecondLevelCache();
+
+    private final Replica replica = new Replica();
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Ingestion getIngestion() {
+        return ingestion;
+    }
+
+    public BatchLoader getBatchLoader() {
+        return batchLoader;
+    }
+
+    public WarmUp getWarmUp() {
+        return warmUp;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public SecondLevelCache getSecondLevelCache() {
+        return secondLevelCache;
+    }
+
+    public Replica getReplica() {
+        return replica;
+    }
+
+    public static class Cache {
+        /**
+         * Maximum number of entries of each cache.
+         */
+        private long maximumSize = 10000;
+
+        /**
+         * Time after which an entry expires, counted from when it was written.
+         */
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class Export {
+        /**
+         * Number of rows fetched from the JDBC cursor per round trip while exporting.
+         */
+        private int fetchSize = 500;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    public static class Ingestion {
+        /**
+         * Maximum number of ingredients waiting to be written, further ones are rejected.
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * Maximum number of ingredients written per transaction.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Time during which the outcome of an ingestion can be polled, counted from when it was accepted.
+         */
+        private Duration statusTimeToLive = Duration.ofMinutes(10);
+
+        /**
+         * Maximum number of ingestion outcomes kept.
+         */
+        private long statusMaximumSize = 100000;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getStatusTimeToLive() {
+            return statusTimeToLive;
+        }
+
+        public void setStatusTimeToLive(Duration statusTimeToLive) {
+            this.statusTimeToLive = statusTimeToLive;
+        }
+
+        public long getStatusMaximumSize() {
+            return statusMaximumSize;
+        }
+
+        public void setStatusMaximumSize(long statusMaximumSize) {
+            this.statusMaximumSize = statusMaximumSize;
+        }
+    }
+
+    public static class BatchLoader {
+        /**
+         * Time during which concurrent lookups by id are collected into one query, zero to disable batching.
+         */
+        private Duration window = Duration.ofMillis(2);
+
+        /**
+         * Maximum number of ids per query, a full batch being loaded without waiting for the end of its window.
+         */
+        private int maxBatchSize = 100;
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+    }
+
+    public static class WarmUp {
+        /**
+         * Number of the most used recipes loaded into the caches at startup, zero to disable the warm-up.
+         */
+        private int recipes = 0;
+
+        public int getRecipes() {
+            return recipes;
+        }
+
+        public void setRecipes(int recipes) {
+            this.recipes = recipes;
+        }
+    }
+
+    public static class ResponseCache {
+        /**
+         * Maximum size of the cached response bodies, identity and gzip encoded ones together.
+         */
+        private DataSize maximumSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Minimum size of a response body for its gzip encoding to be cached and served too.
+         */
+        private DataSize compressionMinSize = DataSize.ofKilobytes(1);
+
+        public DataSize getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(DataSize maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public DataSize getCompressionMinSize() {
+            return compressionMinSize;
+        }
+
+        public void setCompressionMinSize(DataSize compressionMinSize) {
+            this.compressionMinSize = compressionMinSize;
+        }
+    }
+
+    public static class ChangeFeed {
+        /**
+         * Number of the latest changes kept for the subscribers resuming from a {@code Last-Event-ID}.
+         */
+        private int capacity = 10000;
+
+        /**
+         * Interval between the comments sent to idle subscribers, to detect the closed connections.
+         */
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        /**
+         * Time after which a subscription is closed, the client reconnecting with its {@code Last-Event-ID}.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /**
+         * Changes queued per subscriber not sent yet, beyond which the subscriber is closed to resume
+         * with its {@code Last-Event-ID}.
+         */
+        private int subscriberBuffer = 1000;
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getHeartbeat() {
+            return heartbeat;
+        }
+
+        public void setHeartbeat(Duration heartbeat) {
+            this.heartbeat = heartbeat;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getSubscriberBuffer() {
+            return subscriberBuffer;
+        }
+
+        public void setSubscriberBuffer(int subscriberBuffer) {
+            this.subscriberBuffer = subscriberBuffer;
+        }
+    }
+
+    public static class Admission {
+        /**
+         * Whether the concurrent requests of the controllers are limited.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Limit of the concurrent requests of each bulkhead before it adapts to their latency.
+         */
+        private int initialLimit = 20;
+
+        private int minLimit = 4;
+
+        private int maxLimit = 200;
+
+        /**
+         * Ratio of the latency to its long term average from which the limits shrink.
+         */
+        private double tolerance = 1.5;
+
+        /**
+         * Time a rejected client is asked to wait before retrying.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getTolerance() {
+            return tolerance;
+        }
+
+        public void setTolerance(double tolerance) {
+            this.tolerance = tolerance;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    public static class SecondLevelCache {
+        /**
+         * Maximum number of entries of each entity and collection region of the Hibernate second-level cache.
+         */
+        private long maximumSize = 10000;
+
+        /**
+         * Maximum number of query results kept by the query cache.
+         */
+        private long queryMaximumSize = 1000;
+
+        /**
+         * Time after which an entry of a region expires, counted from when it was written.
+         */
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public long getQueryMaximumSize() {
+            return queryMaximumSize;
+        }
+
+        public void setQueryMaximumSize(long queryMaximumSize) {
+            this.queryMaximumSize = queryMaximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class Replica {
+        /**
+         * Whether the read-only transactions are routed to the replicas of {@code spring.datasource}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Replicas of {@code spring.datasource}, read in turn.
+         */
+        private List<ReplicaDataSource> datasources = new ArrayList<>();
+
+        /**
+         * Time after a write during which the reads of its client stay on {@code spring.datasource}, at least
+         * the replication lag. The entries written are evicted from the caches again this long after their commit.
+         */
+        private Duration maxLag = Duration.ofSeconds(1);
+
+        /**
+         * Whether to start two local H2 servers kept in sync, the first one being {@code spring.datasource}
+         * and the second one its replica, in place of {@code spring.datasource.url} and of the datasources.
+         */
+        private boolean localH2Cluster = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<ReplicaDataSource> getDatasources() {
+            return datasources;
+        }
+
+        public void setDatasources(List<ReplicaDataSource> datasources) {
+            this.datasources = datasources;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public boolean isLocalH2Cluster() {
+            return localH2Cluster;
+        }
+
+        public void setLocalH2Cluster(boolean localH2Cluster) {
+            this.localH2Cluster = localH2Cluster;
+        }
+    }
+
+    public static class ReplicaDataSource {
+        private String url;
+
+        /**
+         * Login of the replica, the one of {@code spring.datasource} if not set.
+         */
+        private String username;
+
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.test.restaurant.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * In-process caches in front of the services' lookups, bounded in size and time.
+ * Puts and evictions done inside a transaction are applied once it commits, so a rolled back write
+ * never leaves the cache out of date. Hit, miss and eviction counters are published as {@code cache.*} metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+    public static final String RECIPES = "recipes";
+    public static final String RECIPE_LISTS = "recipeLists";
+    public static final String INGREDIENTS = "ingredients";
+    public static final String INGREDIENT_LISTS = "ingredientLists";
+
+    @Bean
+    public CacheManager cacheManager(ApplicationProperties applicationProperties) {
+        final ApplicationProperties.Cache properties = applicationProperties.getCache();
+        final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats());
+        cacheManager.setCacheNames(Arrays.asList(RECIPES, RECIPE_LISTS, INGREDIENTS, INGREDIENT_LISTS));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,100 @@
+package com.test.restaurant.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.restaurant.controller.util.PaginationUtil;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.IngredientService;
+import com.test.restaurant.service.RecipeService;
+import com.test.restaurant.service.mapper.IngredientMapper;
+import com.test.restaurant.service.mapper.RecipeMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Loads the most used recipes, ranked by number of ingredients, and the first pages of the recipe and ingredient
+ * lists into the caches, and serializes those pages once so that Jackson has built its serializers. The first requests
+ * after a restart are then served like the following ones instead of all missing the caches at once.
+ * <p>
+ * Runs in the lifecycle phase just before the web server's, so the warm-up is over when requests are accepted.
+ * The number of recipes is set by {@code restaurant.warm-up.recipes}, zero disabling the warm-up.
+ */
+@Component
+public class CacheWarmUp implements SmartLifecycle {
+    /**
+     * Phase of the web server lifecycle minus one.
+     */
+    public static final int PHASE = Integer.MAX_VALUE - 2;
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmUp.class);
+
+    private final RecipeService recipeService;
+    private final IngredientService ingredientService;
+    private final RecipeMapper recipeMapper;
+    private final IngredientMapper ingredientMapper;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+    private final int recipes;
+
+    private volatile boolean running;
+
+    public CacheWarmUp(RecipeService recipeService, IngredientService ingredientService, RecipeMapper recipeMapper,
+                       IngredientMapper ingredientMapper, ObjectMapper objectMapper, CacheManager cacheManager,
+                       ApplicationProperties applicationProperties) {
+        this.recipeService = recipeService;
+        this.ingredientService = ingredientService;
+        this.recipeMapper = recipeMapper;
+        this.ingredientMapper = ingredientMapper;
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+        this.recipes = applicationProperties.getWarmUp().getRecipes();
+    }
+
+    @Override
+    public void start() {
+        if (recipes > 0) {
+            warmUp();
+        }
+        running = true;
+    }
+
+    /**
+     * Loads the most used recipes with one query, then the first pages through the cached service methods.
+     */
+    public void warmUp() {
+        final long start = System.nanoTime();
+        final Cache cache = cacheManager.getCache(CacheConfiguration.RECIPES);
+        final List<Recipe> mostUsed = recipeService.findAllById(recipeService.findMostUsedIds(recipes));
+        mostUsed.forEach(recipe -> cache.put(recipe.getId(), recipe));
+
+        final int limit = Integer.parseInt(PaginationUtil.DEFAULT_LIMIT);
+        try {
+            objectMapper.writeValueAsBytes(recipeMapper.toDto(recipeService.findPage(null, limit)));
+            objectMapper.writeValueAsBytes(ingredientMapper.toDto(ingredientService.findPage(null, limit)));
+        } catch (JsonProcessingException e) {
+            log.warn("Cannot serialize the first pages", e);
+        }
+        log.info("Warmed up the caches with " + mostUsed.size() + " recipes in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,173 @@
+package com.test.restaurant.config;
+
+import com.test.restaurant.config.datasource.H2Cluster;
+import com.test.restaurant.config.datasource.ReadWriteRoutingDataSource;
+import com.test.restaurant.config.datasource.ReadYourWritesFilter;
+import com.test.restaurant.config.datasource.ReplicaLagEviction;
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.IngredientService;
+import com.test.restaurant.service.RecipeService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only transactions on the replicas of {@code spring.datasource}, see {@link ReadWriteRoutingDataSource}.
+ * The repositories are read-only by default, so the reads of the services not done in a transaction
+ * ({@code findAll}, {@code findById}, ...) are read from the replicas too. Each HTTP client reads its own writes
+ * from the primary for {@code max-lag} after them, see {@link ReadYourWritesFilter}.
+ * The pools are published as {@code hikaricp.*} metrics, tagged with {@code pool:primary}, {@code pool:replica-0}, ...
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "restaurant.replica", name = "enabled", havingValue = "true")
+public class DataSourceConfiguration {
+
+    /**
+     * Defers obtaining the connection of a transaction until its first statement, once it is known to be read-only.
+     * The routing data source is not a bean of its own, which would be initialized with {@code schema.sql} like
+     * any data source.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, ApplicationProperties applicationProperties,
+                                 ObjectProvider<H2Cluster> h2Cluster, MeterRegistry meterRegistry) {
+        final ApplicationProperties.Replica properties = applicationProperties.getReplica();
+        final H2Cluster cluster = h2Cluster.getIfAvailable();
+        final HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(cluster != null ? cluster.getUrl() : dataSourceProperties.determineUrl())
+                .build();
+        primary.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        primary.setMetricRegistry(meterRegistry);
+
+        final List<ApplicationProperties.ReplicaDataSource> replicaProperties = new ArrayList<>(properties.getDatasources());
+        if (cluster != null) {
+            final ApplicationProperties.ReplicaDataSource clusterReplica = new ApplicationProperties.ReplicaDataSource();
+            clusterReplica.setUrl(cluster.getReplicaUrl());
+            replicaProperties.add(clusterReplica);
+        }
+        final List<HikariDataSource> replicas = new ArrayList<>();
+        for (ApplicationProperties.ReplicaDataSource replicaDataSource : replicaProperties) {
+            final HikariDataSource replica = DataSourceBuilder.create(dataSourceProperties.getClassLoader())
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(replicaDataSource.getUrl())
+                    .username(replicaDataSource.getUsername() != null
+                            ? replicaDataSource.getUsername() : dataSourceProperties.determineUsername())
+                    .password(replicaDataSource.getUsername() != null
+                            ? replicaDataSource.getPassword() : dataSourceProperties.determinePassword())
+                    .build();
+            replica.setPoolName(ReadWriteRoutingDataSource.REPLICA + replicas.size());
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(replica);
+        }
+        final ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary, replicas, properties.getMaxLag());
+        routingDataSource.afterPropertiesSet();
+        return new ClosingLazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Ahead of the other filters, so that the response cache filter reads with the client too.
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ApplicationProperties applicationProperties) {
+        final FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(applicationProperties.getReplica().getMaxLag()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Evicts the written recipes and ingredients from the service caches and the second-level cache, and invalidates
+     * the cached responses, once the replicas have caught up with the writes, in case the reads of other clients
+     * filled them from a replica in the meantime. The lists are evicted whatever the write, as on commit.
+     */
+    @Bean
+    public ReplicaLagEviction replicaLagEviction(ApplicationProperties applicationProperties,
+                                                 EntityManagerFactory entityManagerFactory, RecipeService recipeService,
+                                                 IngredientService ingredientService) {
+        return new ReplicaLagEviction(applicationProperties.getReplica().getMaxLag(), writes -> {
+            final boolean recipesWritten = !writes.getRecipeIds().isEmpty();
+            final boolean ingredientsWritten = !writes.getIngredientIds().isEmpty();
+            // as on commit: before the eviction, so that the loads in flight are not cached, and once evicted
+            incrementVersions(recipesWritten, recipeService, ingredientsWritten, ingredientService);
+            evictSecondLevelCache(entityManagerFactory.getCache().unwrap(Cache.class), writes);
+            recipeService.evictCached(writes.getRecipeIds());
+            ingredientService.evictCached(writes.getIngredientIds());
+            incrementVersions(recipesWritten, recipeService, ingredientsWritten, ingredientService);
+        });
+    }
+
+    private static void incrementVersions(boolean recipesWritten, RecipeService recipeService,
+                                          boolean ingredientsWritten, IngredientService ingredientService) {
+        if (recipesWritten) {
+            recipeService.incrementVersion();
+        }
+        if (ingredientsWritten) {
+            ingredientService.incrementVersion();
+        }
+    }
+
+    private static void evictSecondLevelCache(Cache cache, ReplicaLagEviction.Writes writes) {
+        for (Long id : writes.getRecipeIds()) {
+            cache.evictEntityData(Recipe.class, id);
+            cache.evictCollectionData(HibernateCacheConfiguration.RECIPE_INGREDIENTS_REGION, id);
+        }
+        for (Long id : writes.getIngredientIds()) {
+            cache.evictEntityData(Ingredient.class, id);
+        }
+        if (writes.isIngredientsOfAllRecipes()) {
+            cache.evictCollectionData(HibernateCacheConfiguration.RECIPE_INGREDIENTS_REGION);
+        } else {
+            for (Long id : writes.getRecipeIdsOfIngredients()) {
+                cache.evictCollectionData(HibernateCacheConfiguration.RECIPE_INGREDIENTS_REGION, id);
+            }
+        }
+        cache.evictQueryRegions();
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "restaurant.replica", name = "local-h2-cluster", havingValue = "true")
+    public static class LocalH2ClusterConfiguration {
+
+        @Bean
+        public H2Cluster h2Cluster(DataSourceProperties dataSourceProperties) throws IOException, SQLException {
+            return new H2Cluster(dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        }
+    }
+
+    /**
+     * Closes the pools of the routing data source with the context.
+     */
+    private static class ClosingLazyConnectionDataSourceProxy extends LazyConnectionDataSourceProxy implements Closeable {
+
+        private ClosingLazyConnectionDataSourceProxy(ReadWriteRoutingDataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public void close() throws IOException {
+            ((ReadWriteRoutingDataSource) obtainTargetDataSource()).close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.test.restaurant.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache of the recipes, the ingredients and the ingredients of each recipe, and query cache
+ * of the list queries, held in Caffeine caches through JCache. It sits below the service caches: it serves the entities
+ * loaded by id or through {@link Recipe#getIngredients()}, and the lists, whatever the service cache they miss.
+ * <p>
+ * Entities are cached read-write, so a write is never hidden by an entry cached before it commits; a bulk update or
+ * delete empties the regions of its entity. The ingredients of a recipe are evicted whenever an ingredient is created,
+ * moved or deleted; the bulk statements of the ingredients evict the ingredients of every recipe. Cached query
+ * results are dropped as soon as a table they read is written.
+ * Hits and misses of every region are published as {@code hibernate.second.level.cache.*} and
+ * {@code hibernate.query.cache.*} metrics.
+ */
+@Configuration
+public class HibernateCacheConfiguration {
+    public static final String RECIPES_REGION = Recipe.class.getName();
+    /**
+     * Region of {@link Recipe#getIngredients()}, named after the collection role.
+     */
+    public static final String RECIPE_INGREDIENTS_REGION = Recipe.class.getName() + ".ingredients";
+    public static final String INGREDIENTS_REGION = Ingredient.class.getName();
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(ApplicationProperties applicationProperties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            // Recipe.ingredients is the inverse side of Ingredient.recipe: without it, creating, moving or deleting
+            // an ingredient would not evict the cached ingredients of its recipes
+            hibernateProperties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            // closed by Hibernate with the session factory
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, createCacheManager(applicationProperties.getSecondLevelCache()));
+            // every region is created below with its bounds, a new one has to be added there
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    private static CacheManager createCacheManager(ApplicationProperties.SecondLevelCache properties) {
+        final CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // a cache manager of its own, not shared with the other application contexts of the JVM (tests)
+        final CacheManager cacheManager = provider.getCacheManager(URI.create("hibernate:" + UUID.randomUUID()),
+                provider.getDefaultClassLoader());
+        final long timeToLive = properties.getTimeToLive().toNanos();
+        cacheManager.createCache(RECIPES_REGION, configuration(properties.getMaximumSize(), timeToLive));
+        cacheManager.createCache(RECIPE_INGREDIENTS_REGION, configuration(properties.getMaximumSize(), timeToLive));
+        cacheManager.createCache(INGREDIENTS_REGION, configuration(properties.getMaximumSize(), timeToLive));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                configuration(properties.getQueryMaximumSize(), timeToLive));
+        // last write of each table, checked against the cached query results: never evicted nor expired
+        final CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStoreByValue(false);
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, timestamps);
+        return cacheManager;
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration(long maximumSize, long timeToLive) {
+        final CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(timeToLive));
+        // Hibernate caches disassembled states, copying them on every access is useless
+        configuration.setStoreByValue(false);
+        return configuration;
+    }
+}
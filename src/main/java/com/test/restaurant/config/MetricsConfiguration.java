@@ -0,0 +1,39 @@
+package com.test.restaurant.config;
+
+import com.test.restaurant.config.metrics.RepositoryMetricsPostProcessor;
+import com.test.restaurant.config.metrics.StatementCountFilter;
+import com.test.restaurant.config.metrics.StatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics on top of the ones of Spring Boot Actuator ({@code http.server.requests}, {@code hibernate.*}, {@code cache.*}):
+ * timers of the repository methods and number of SQL statements per request.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RepositoryMetricsPostProcessor(meterRegistry);
+    }
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(StatementCounter statementCounter) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+    }
+
+    @Bean
+    public StatementCountFilter statementCountFilter(StatementCounter statementCounter, MeterRegistry meterRegistry) {
+        return new StatementCountFilter(statementCounter, meterRegistry);
+    }
+}
@@ -0,0 +1,56 @@
+package com.test.restaurant.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.test.restaurant.config.response.ResponseCacheFilter;
+import com.test.restaurant.service.IngredientService;
+import com.test.restaurant.service.RecipeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Cache of the serialized responses of the list endpoints, {@code GET /recipes} and {@code GET /ingredients}.
+ * A response is replayed until the recipes or the ingredients it was built from change.
+ * Hit and miss counters are published as {@code cache.*} metrics of the {@code responses} cache.
+ */
+@Configuration
+public class ResponseCacheConfiguration {
+    public static final String RESPONSES = "responses";
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(ApplicationProperties applicationProperties,
+                                                                           RecipeService recipeService,
+                                                                           IngredientService ingredientService,
+                                                                           MeterRegistry meterRegistry) {
+        final ApplicationProperties.ResponseCache properties = applicationProperties.getResponseCache();
+        final Cache<String, ResponseCacheFilter.CachedResponse> cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize().toBytes())
+                .<String, ResponseCacheFilter.CachedResponse>weigher((key, response) -> key.length() + response.size())
+                .recordStats()
+                .build();
+        // same tag keys as the caches of the cache manager, which Prometheus requires
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, RESPONSES, Tags.of("cacheManager", "responseCacheFilter", "name", RESPONSES));
+        final ResponseCacheFilter filter = new ResponseCacheFilter(cache,
+                request -> isRecipesOnly(request)
+                        ? recipeService.getVersion()
+                        : recipeService.getVersion() + ingredientService.getVersion(),
+                properties.getCompressionMinSize().toBytes());
+        final FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/recipes", "/ingredients");
+        return registration;
+    }
+
+    /**
+     * Ingredients embed their recipe, so only the recipes without their ingredients do not depend on the ingredients.
+     */
+    private static boolean isRecipesOnly(HttpServletRequest request) {
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals("/recipes") && request.getParameter("expand") == null;
+    }
+}
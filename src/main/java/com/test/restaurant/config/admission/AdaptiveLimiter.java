@@ -0,0 +1,112 @@
+package com.test.restaurant.config.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limit of the requests processed concurrently, adapted to their latency. The limit grows while the latency stays close
+ * to its long term average, and shrinks when the latency rises above it, the requests then queuing somewhere
+ * (connection pool, database), or when requests fail. The limit therefore tracks the concurrency the downstream
+ * resources can absorb, and the requests beyond it are rejected right away instead of queuing.
+ * <p>
+ * The estimate follows the gradient algorithm of Netflix' concurrency-limits:
+ * {@code newLimit = limit * min(1, tolerance * longLatency / latency) + sqrt(limit)}, smoothed and bounded.
+ */
+public class AdaptiveLimiter {
+    /**
+     * Number of samples of the long term latency average.
+     */
+    private static final double LONG_WINDOW = 600;
+    /**
+     * Weight of a new estimate of the limit.
+     */
+    private static final double SMOOTHING = 0.2;
+    /**
+     * Factor applied to the limit when a request fails.
+     */
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    /**
+     * Long term average of the latency in nanoseconds, guarded by this.
+     */
+    private double longLatency;
+
+    /**
+     * @param tolerance ratio of the latency to its long term average from which the limit shrinks
+     */
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * @return {@code true} if the request can be processed, then {@link #release(long, boolean)} must be called once done,
+     * {@code false} if the limit is reached
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Ends a request and adapts the limit to its latency.
+     * @param latency processing time of the request in nanoseconds
+     * @param failed whether the request failed, which shrinks the limit whatever its latency
+     */
+    public void release(long latency, boolean failed) {
+        update(latency, inFlight.getAndDecrement(), failed);
+    }
+
+    /**
+     * Ends a request without adapting the limit, for requests whose latency does not reflect the load.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private synchronized void update(long latency, int requests, boolean failed) {
+        if (failed) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+            return;
+        }
+        longLatency = longLatency == 0 ? latency : longLatency + (latency - longLatency) / LONG_WINDOW;
+        if (longLatency > 2 * latency) {
+            // the latency dropped for good, the average catches up faster
+            longLatency *= 0.95;
+        }
+        if (requests < limit / 2) {
+            // far from the limit, the latency says nothing about it
+            return;
+        }
+        final double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / Math.max(latency, 1)));
+        final double estimate = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + estimate * SMOOTHING));
+    }
+
+    /**
+     * @return the current limit of the concurrent requests
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return the number of requests being processed
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
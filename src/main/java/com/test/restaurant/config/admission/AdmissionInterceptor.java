@@ -0,0 +1,145 @@
+package com.test.restaurant.config.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Admission control of the controllers: the requests of each endpoint, its route pattern and HTTP method, go through
+ * a bulkhead of their own, with its own {@link AdaptiveLimiter}, so that a slow endpoint does not take the limit
+ * of the others. A request beyond the limit is rejected right away with the {@code Retry-After} header,
+ * reads ({@code GET} and {@code HEAD}) with {@code 503 (Service Unavailable)} and writes with
+ * {@code 429 (Too Many Requests)}, like the full ingestion queue.
+ * <p>
+ * Each bulkhead publishes its limit and its requests in flight as the {@value #LIMIT_METRIC}
+ * and {@value #IN_FLIGHT_METRIC} gauges, and its rejected requests as the {@value #REJECTED_METRIC} counter,
+ * tagged with the bulkhead, e.g. {@code GET /recipes/{id}}.
+ */
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+    public static final String LIMIT_METRIC = "admission.limit";
+    public static final String IN_FLIGHT_METRIC = "admission.in.flight";
+    public static final String REJECTED_METRIC = "admission.rejected";
+
+    private static final String ADMISSION_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".admission";
+
+    private final Supplier<AdaptiveLimiter> limiterFactory;
+    private final String retryAfter;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * @param retryAfter seconds a rejected client is asked to wait before retrying
+     */
+    public AdmissionInterceptor(Supplier<AdaptiveLimiter> limiterFactory, long retryAfter, MeterRegistry meterRegistry) {
+        this.limiterFactory = limiterFactory;
+        this.retryAfter = Long.toString(retryAfter);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod) || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        final boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        final Bulkhead bulkhead = getBulkhead(request.getMethod() + " " + route(request, (HandlerMethod) handler));
+        if (!bulkhead.limiter.tryAcquire()) {
+            bulkhead.rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            response.setStatus((read ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS).value());
+            return false;
+        }
+        request.setAttribute(ADMISSION_ATTRIBUTE, new Admission(bulkhead.limiter, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        final Admission admission = (Admission) request.getAttribute(ADMISSION_ATTRIBUTE);
+        if (admission != null) {
+            request.removeAttribute(ADMISSION_ATTRIBUTE);
+            admission.limiter.release(System.nanoTime() - admission.start,
+                    ex != null || response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value());
+        }
+    }
+
+    /**
+     * The processing of an asynchronous request goes on elsewhere, its latency does not tell the load of the controller.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        final Admission admission = (Admission) request.getAttribute(ADMISSION_ATTRIBUTE);
+        if (admission != null) {
+            request.removeAttribute(ADMISSION_ATTRIBUTE);
+            admission.limiter.release();
+        }
+    }
+
+    /**
+     * @return the limiter of the bulkhead, {@code GET /recipes/{id}} for instance
+     */
+    public AdaptiveLimiter getLimiter(String bulkhead) {
+        return getBulkhead(bulkhead).limiter;
+    }
+
+    private Bulkhead getBulkhead(String name) {
+        return bulkheads.computeIfAbsent(name, this::createBulkhead);
+    }
+
+    private Bulkhead createBulkhead(String name) {
+        final AdaptiveLimiter limiter = limiterFactory.get();
+        Gauge.builder(LIMIT_METRIC, limiter, AdaptiveLimiter::getLimit)
+                .description("Concurrent requests admitted")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, limiter, AdaptiveLimiter::getInFlight)
+                .description("Requests being processed")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        final Counter rejected = Counter.builder(REJECTED_METRIC)
+                .description("Requests rejected because the limit was reached")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        return new Bulkhead(limiter, rejected);
+    }
+
+    /**
+     * @return the route pattern the request matched, {@code /recipes/{id}} for instance
+     */
+    private static String route(HttpServletRequest request, HandlerMethod handler) {
+        final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : handler.getShortLogMessage();
+    }
+
+    private static final class Bulkhead {
+        private final AdaptiveLimiter limiter;
+        private final Counter rejected;
+
+        private Bulkhead(AdaptiveLimiter limiter, Counter rejected) {
+            this.limiter = limiter;
+            this.rejected = rejected;
+        }
+    }
+
+    private static final class Admission {
+        private final AdaptiveLimiter limiter;
+        private final long start;
+
+        private Admission(AdaptiveLimiter limiter, long start) {
+            this.limiter = limiter;
+            this.start = start;
+        }
+    }
+}
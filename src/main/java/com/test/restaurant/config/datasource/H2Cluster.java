@@ -0,0 +1,81 @@
+package com.test.restaurant.config.datasource;
+
+import org.h2.tools.CreateCluster;
+import org.h2.tools.Server;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * Two local H2 servers in cluster mode, each with its own copy of the database: the statements sent through
+ * {@link #getUrl()} are run by both servers, and {@link #getReplicaUrl()} reads the copy of the second one.
+ * Stands for a primary and its replica, kept in sync without lag, to run the application with replicas locally.
+ * The copies are deleted when the servers stop.
+ */
+public class H2Cluster implements DisposableBean {
+    private static final String DATABASE = "restaurant";
+
+    private final Node primary;
+    private final Node replica;
+
+    public H2Cluster(String username, String password) throws IOException, SQLException {
+        this.primary = new Node("primary");
+        this.replica = new Node("replica");
+        new CreateCluster().runTool("-urlSource", primary.url(), "-urlTarget", replica.url(),
+                "-user", username, "-password", password == null ? "" : password,
+                "-serverList", primary.address() + "," + replica.address());
+    }
+
+    /**
+     * @return the url of the cluster, writing to both servers and reading from the first one
+     */
+    public String getUrl() {
+        return "jdbc:h2:tcp://" + primary.address() + "," + replica.address() + "/./" + DATABASE;
+    }
+
+    /**
+     * @return the url of the copy of the second server alone
+     */
+    public String getReplicaUrl() {
+        // CLUSTER=TRUE lets a connection to a single server of the cluster in
+        return replica.url() + ";CLUSTER=TRUE";
+    }
+
+    @Override
+    public void destroy() {
+        primary.stop();
+        replica.stop();
+    }
+
+    private static final class Node {
+        private final Path directory;
+        private final Server server;
+
+        private Node(String name) throws IOException, SQLException {
+            this.directory = Files.createTempDirectory("restaurant-" + name);
+            // any free port, the database being created by the first connection
+            this.server = Server.createTcpServer("-tcpPort", "0", "-baseDir", directory.toString(), "-ifNotExists").start();
+        }
+
+        private String address() {
+            return "localhost:" + server.getPort();
+        }
+
+        private String url() {
+            return "jdbc:h2:tcp://" + address() + "/./" + DATABASE;
+        }
+
+        private void stop() {
+            server.stop();
+            try {
+                FileSystemUtils.deleteRecursively(directory);
+            } catch (IOException e) {
+                // temporary directory, left to the system
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.test.restaurant.config.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes the connections of the read-only transactions to the replicas, in turn, and all the others to the primary.
+ * The route is chosen when the connection is obtained, so the connections have to be obtained once the transaction
+ * has started, through a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ * <p>
+ * Replicas apply the writes of the primary with some lag: for {@code maxLag} after one of its write transactions
+ * commits, the reads of a {@link Client} stay on the primary, so that it reads its own writes. The reads of the other
+ * clients keep going to the replicas. The client of the current thread is set by the {@link ReadYourWritesFilter}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica-";
+
+    private static final ThreadLocal<Client> CLIENT = new ThreadLocal<>();
+
+    private final List<DataSource> dataSources = new ArrayList<>();
+    private final List<String> replicas = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final long maxLag;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Duration maxLag) {
+        final Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        dataSources.add(primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(REPLICA + i, replicas.get(i));
+            dataSources.add(replicas.get(i));
+            this.replicas.add(REPLICA + i);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.maxLag = maxLag.toMillis();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        final Client client = CLIENT.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (client != null && TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isSynchronizationActive()) {
+                onCommit(client);
+            }
+            return PRIMARY;
+        }
+        if (replicas.isEmpty() || client != null && System.currentTimeMillis() - client.getLastWrite() < maxLag) {
+            return PRIMARY;
+        }
+        return replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+    }
+
+    /**
+     * Sets the client of the transactions of the current thread.
+     * @param client the client, {@code null} for none, whose reads always go to the replicas
+     */
+    public static void setClient(Client client) {
+        if (client != null) {
+            CLIENT.set(client);
+        } else {
+            CLIENT.remove();
+        }
+    }
+
+    /**
+     * Keeps the reads of the client on the primary for {@code maxLag} once the write transaction commits.
+     */
+    private static void onCommit(Client client) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                client.onWrite(System.currentTimeMillis());
+            }
+        });
+    }
+
+    /**
+     * Closes the primary and the replicas.
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof Closeable) {
+                ((Closeable) dataSource).close();
+            }
+        }
+    }
+
+    /**
+     * Client whose reads follow its writes, a session for instance.
+     */
+    public static class Client {
+        private volatile long lastWrite;
+
+        /**
+         * @param lastWrite time of the last write of the client, in milliseconds since the epoch, 0 if none
+         */
+        public Client(long lastWrite) {
+            this.lastWrite = lastWrite;
+        }
+
+        public long getLastWrite() {
+            return lastWrite;
+        }
+
+        /**
+         * Called once a write transaction of the client commits.
+         * @param time in milliseconds since the epoch
+         */
+        protected void onWrite(long time) {
+            lastWrite = time;
+        }
+    }
+}
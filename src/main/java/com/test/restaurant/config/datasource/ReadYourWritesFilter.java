@@ -0,0 +1,63 @@
+package com.test.restaurant.config.datasource;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Makes every request the {@link ReadWriteRoutingDataSource.Client} of its transactions. The time of the last write
+ * of a client is kept in the {@value #LAST_WRITE_COOKIE} cookie, set once a write transaction of the request commits
+ * and kept for {@code maxLag}: until then, the reads of the client go to the primary. The client is the session
+ * of the cookie, so a client without cookies is only sure to read its writes once the replicas caught up.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String LAST_WRITE_COOKIE = "last-write";
+
+    private final int maxAge;
+
+    public ReadYourWritesFilter(Duration maxLag) {
+        this.maxAge = (int) Math.max(1, (maxLag.toMillis() + 999) / 1000);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReadWriteRoutingDataSource.setClient(new ReadWriteRoutingDataSource.Client(lastWrite(request)) {
+            @Override
+            protected void onWrite(long time) {
+                super.onWrite(time);
+                if (!response.isCommitted()) {
+                    final Cookie cookie = new Cookie(LAST_WRITE_COOKIE, Long.toString(time));
+                    cookie.setPath("/");
+                    cookie.setMaxAge(maxAge);
+                    cookie.setHttpOnly(true);
+                    response.addCookie(cookie);
+                }
+            }
+        });
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadWriteRoutingDataSource.setClient(null);
+        }
+    }
+
+    private static long lastWrite(HttpServletRequest request) {
+        final Cookie cookie = WebUtils.getCookie(request, LAST_WRITE_COOKIE);
+        if (cookie == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.test.restaurant.config.datasource;
+
+import com.test.restaurant.service.event.IngredientDeletedEvent;
+import com.test.restaurant.service.event.IngredientSavedEvent;
+import com.test.restaurant.service.event.RecipeDeletedEvent;
+import com.test.restaurant.service.event.RecipeSavedEvent;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs the eviction of the written entries again once the replicas have applied the writes. The reads of the other
+ * clients go on reading the replicas right after a write, so an entry evicted on commit may be filled again, until
+ * the replicas catch up, with the rows as they were before it. The recipes and ingredients written by the committed
+ * transactions are recorded, and evicted {@code maxLag} after their commit, the writes due together in one batch.
+ */
+public class ReplicaLagEviction implements DisposableBean {
+    private final long maxLag;
+    private final Consumer<Writes> eviction;
+    private final Queue<Write> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "replica-lag-eviction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param eviction evicts the entries of the writes from the caches
+     */
+    public ReplicaLagEviction(Duration maxLag, Consumer<Writes> eviction) {
+        this.maxLag = maxLag.toMillis();
+        this.eviction = eviction;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeSaved(RecipeSavedEvent event) {
+        add(writes -> writes.recipeIds.add(event.getId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onRecipeDeleted(RecipeDeletedEvent event) {
+        add(writes -> writes.recipeIds.add(event.getId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onIngredientSaved(IngredientSavedEvent event) {
+        add(writes -> {
+            writes.ingredientIds.add(event.getId());
+            if (event.isCreated()) {
+                writes.recipeIdsOfIngredients.add(event.getRecipeId());
+            } else {
+                // may have been moved from a recipe the event does not tell
+                writes.ingredientsOfAllRecipes = true;
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onIngredientDeleted(IngredientDeletedEvent event) {
+        add(writes -> {
+            writes.ingredientIds.add(event.getId());
+            writes.ingredientsOfAllRecipes = true;
+        });
+    }
+
+    private void add(Consumer<Writes> write) {
+        pending.add(new Write(System.currentTimeMillis(), write));
+        schedule(maxLag);
+    }
+
+    private void schedule(long delay) {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.schedule(this::evict, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+            }
+        }
+    }
+
+    /**
+     * Evicts the writes committed at least {@code maxLag} ago, then runs again once the next one is due.
+     */
+    private void evict() {
+        scheduled.set(false);
+        final long now = System.currentTimeMillis();
+        final Writes writes = new Writes();
+        Write write;
+        while ((write = pending.peek()) != null && now - write.time >= maxLag) {
+            pending.poll().record.accept(writes);
+        }
+        try {
+            if (!writes.isEmpty()) {
+                eviction.accept(writes);
+            }
+        } finally {
+            write = pending.peek();
+            if (write != null) {
+                schedule(Math.max(0, write.time + maxLag - now));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class Write {
+        private final long time;
+        private final Consumer<Writes> record;
+
+        private Write(long time, Consumer<Writes> record) {
+            this.time = time;
+            this.record = record;
+        }
+    }
+
+    /**
+     * Recipes and ingredients written by the transactions due for eviction.
+     */
+    public static final class Writes {
+        private final Set<Long> recipeIds = new HashSet<>();
+        private final Set<Long> ingredientIds = new HashSet<>();
+        private final Set<Long> recipeIdsOfIngredients = new HashSet<>();
+        private boolean ingredientsOfAllRecipes;
+
+        /**
+         * @return ids of the recipes created, updated or deleted
+         */
+        public Set<Long> getRecipeIds() {
+            return recipeIds;
+        }
+
+        /**
+         * @return ids of the ingredients created, updated or deleted
+         */
+        public Set<Long> getIngredientIds() {
+            return ingredientIds;
+        }
+
+        /**
+         * @return ids of the recipes whose ingredients changed, see also {@link #isIngredientsOfAllRecipes()}
+         */
+        public Set<Long> getRecipeIdsOfIngredients() {
+            return recipeIdsOfIngredients;
+        }
+
+        /**
+         * @return whether an ingredient was updated or deleted, which may have changed the ingredients of any recipe
+         */
+        public boolean isIngredientsOfAllRecipes() {
+            return ingredientsOfAllRecipes;
+        }
+
+        boolean isEmpty() {
+            return recipeIds.isEmpty() && ingredientIds.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.test.restaurant.config.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call of the Spring Data repositories as the {@code spring.data.repository.invocations} timer,
+ * tagged with the repository interface, the method, the outcome ({@code SUCCESS} or {@code ERROR})
+ * and the exception class. The timer is added in front of the repository proxy advices,
+ * so it includes the transaction and the exception translation.
+ */
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+    public static final String METRIC_NAME = "spring.data.repository.invocations";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository && bean instanceof Advised) {
+            final Advised repository = (Advised) bean;
+            final String repositoryName = Arrays.stream(repository.getProxiedInterfaces())
+                    .filter(Repository.class::isAssignableFrom)
+                    .findFirst()
+                    .map(Class::getSimpleName)
+                    .orElse(beanName);
+            repository.addAdvice(0, timingInterceptor(repositoryName));
+        }
+        return bean;
+    }
+
+    private MethodInterceptor timingInterceptor(String repositoryName) {
+        return invocation -> {
+            final long start = System.nanoTime();
+            String exception = "None";
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            } finally {
+                Timer.builder(METRIC_NAME)
+                        .description("Duration of the repository method invocations")
+                        .tag("repository", repositoryName)
+                        .tag("method", invocation.getMethod().getName())
+                        .tag("state", "None".equals(exception) ? "SUCCESS" : "ERROR")
+                        .tag("exception", exception)
+                        .register(meterRegistry.getObject())
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.test.restaurant.config.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()} and {@link #stop()}.
+ * Statements prepared outside of such a window are not counted.
+ */
+public class StatementCounter implements StatementInspector {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Serializable as required by {@link StatementInspector}, but only meaningful in this JVM.
+     */
+    private final transient ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    public void start() {
+        count.set(new int[1]);
+    }
+
+    /**
+     * @return the number of statements prepared since {@link #start()}, 0 if it was not called
+     */
+    public int stop() {
+        final int[] current = count.get();
+        count.remove();
+        return current == null ? 0 : current[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        final int[] current = count.get();
+        if (current != null) {
+            current[0]++;
+        }
+        return sql;
+    }
+}
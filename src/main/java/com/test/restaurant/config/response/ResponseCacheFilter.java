@@ -0,0 +1,235 @@
+package com.test.restaurant.config.response;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToLongFunction;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Replays the serialized {@code 200 (OK)} responses of {@code GET} requests, as long as the version of the data
+ * they were built from is unchanged. A response is cached per URL (query string included) and {@code Accept} header,
+ * with its headers and its body, identity and gzip encoded once for all. A hit is written with a single copy
+ * of the cached bytes, without reading the database nor serializing anything.
+ * <p>
+ * Concurrent misses of the same response share one serialization: the first one builds the response, the ones
+ * arriving meanwhile wait for it and write it, unless it was built from an older version of the data.
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+    private static final String GZIP = "gzip";
+
+    private final Cache<String, CachedResponse> cache;
+    private final ConcurrentMap<String, Build> building = new ConcurrentHashMap<>();
+    private final ToLongFunction<HttpServletRequest> version;
+    private final long compressionMinSize;
+
+    /**
+     * @param version version of the data the response to the request is built from, which must be incremented
+     * once a change of the data is visible to the following requests
+     * @param compressionMinSize minimum size of a body for its gzip encoding to be cached and served too
+     */
+    public ResponseCacheFilter(Cache<String, CachedResponse> cache, ToLongFunction<HttpServletRequest> version,
+                               long compressionMinSize) {
+        this.cache = cache;
+        this.version = version;
+        this.compressionMinSize = compressionMinSize;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        final String key = key(request);
+        // read before the data, so that a change made meanwhile invalidates the response built below
+        final long currentVersion = version.applyAsLong(request);
+        final CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null && cached.version == currentVersion) {
+            cached.writeTo(request, response);
+            return;
+        }
+
+        final Build build = new Build(currentVersion);
+        final Build existing = building.putIfAbsent(key, build);
+        if (existing != null) {
+            final CachedResponse shared = existing.version >= currentVersion ? existing.response.join() : null;
+            if (shared != null) {
+                shared.writeTo(request, response);
+            } else {
+                // built from older data, or not cacheable: built on its own
+                buildResponse(key, currentVersion, null, request, response, filterChain);
+            }
+            return;
+        }
+        try {
+            buildResponse(key, currentVersion, build, request, response, filterChain);
+        } finally {
+            building.remove(key, build);
+            // not completed if the response could not be cached
+            build.response.complete(null);
+        }
+    }
+
+    /**
+     * Builds the response and caches it, then completes the build, if any, before writing it.
+     */
+    private void buildResponse(String key, long currentVersion, Build build, HttpServletRequest request,
+                               HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        final Set<String> headersBefore = new HashSet<>(response.getHeaderNames());
+        final ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || response.isCommitted()) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        final Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!headersBefore.contains(name) && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                headers.put(name, new ArrayList<>(response.getHeaders(name)));
+            }
+        }
+        final byte[] body = wrapper.getContentAsByteArray();
+        final CachedResponse built = new CachedResponse(currentVersion, wrapper.getContentType(), headers, body,
+                body.length >= compressionMinSize ? gzip(body) : null);
+        cache.put(key, built);
+        if (build != null) {
+            build.response.complete(built);
+        }
+        // the headers are already set, only the body is left to write, possibly gzip encoded
+        built.writeBodyTo(request, response);
+    }
+
+    private static String key(HttpServletRequest request) {
+        final StringBuilder key = new StringBuilder(request.getRequestURL());
+        if (request.getQueryString() != null) {
+            key.append('?').append(request.getQueryString());
+        }
+        final String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return key.append(' ').append(accept == null ? "" : accept).toString();
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * @return whether the {@code Accept-Encoding} header accepts gzip, that is names it without {@code q=0}
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+            final String[] parameters = StringUtils.tokenizeToStringArray(coding, ";");
+            if (parameters.length > 0 && GZIP.equalsIgnoreCase(parameters[0])) {
+                for (int i = 1; i < parameters.length; i++) {
+                    if (parameters[i].matches("q\\s*=\\s*0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Response being built from the version of the data, completed with {@code null} if it cannot be shared.
+     */
+    private static final class Build {
+        private final long version;
+        private final CompletableFuture<CachedResponse> response = new CompletableFuture<>();
+
+        Build(long version) {
+            this.version = version;
+        }
+    }
+
+    /**
+     * Response cached with the version of the data it was built from.
+     */
+    public static final class CachedResponse {
+        private final long version;
+        private final String contentType;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+        private final byte[] gzipBody;
+
+        CachedResponse(long version, String contentType, Map<String, List<String>> headers, byte[] body, byte[] gzipBody) {
+            this.version = version;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+            this.gzipBody = gzipBody;
+        }
+
+        /**
+         * @return number of bytes of the bodies, the weight of the response in the cache
+         */
+        public int size() {
+            return body.length + (gzipBody == null ? 0 : gzipBody.length);
+        }
+
+        void writeTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            response.setStatus(HttpServletResponse.SC_OK);
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            headers.forEach((name, values) -> setHeader(response, name, values));
+            writeBodyTo(request, response);
+        }
+
+        void writeBodyTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            byte[] encoded = body;
+            if (gzipBody != null) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                    encoded = gzipBody;
+                }
+            }
+            response.setContentLength(encoded.length);
+            response.getOutputStream().write(encoded);
+            response.flushBuffer();
+        }
+
+        private static void setHeader(HttpServletResponse response, String name, Collection<String> values) {
+            boolean first = true;
+            for (String value : values) {
+                if (first) {
+                    response.setHeader(name, value);
+                    first = false;
+                } else {
+                    response.addHeader(name, value);
+                }
+            }
+        }
+    }
+}
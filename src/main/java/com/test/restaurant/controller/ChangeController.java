@@ -0,0 +1,87 @@
+package com.test.restaurant.controller;
+
+import com.test.restaurant.config.ApplicationProperties;
+import com.test.restaurant.service.ChangeFeedService;
+import com.test.restaurant.service.feed.Change;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+@RestController
+@Lazy(false)
+@RequestMapping("/changes")
+public class ChangeController {
+    /**
+     * Name of the event telling the client that changes were missed, so that it reads the recipes and ingredients again.
+     */
+    public static final String RESET_EVENT = "reset";
+
+    /**
+     * Milliseconds a client waits before reconnecting.
+     */
+    private static final long RECONNECT_DELAY = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(ChangeController.class);
+
+    private final ChangeFeedService changeFeedService;
+    private final long timeout;
+
+    public ChangeController(ChangeFeedService changeFeedService, ApplicationProperties applicationProperties) {
+        this.changeFeedService = changeFeedService;
+        this.timeout = applicationProperties.getChangeFeed().getTimeout().toMillis();
+    }
+
+    /**
+     * {@code GET /changes} : Stream the changes of the recipes and ingredients as they are committed, as server-sent events.
+     * Every change is sent as a message with its sequence number as id and the {@link Change} as JSON data.
+     * A client not reading the changes as fast as they come is disconnected, to reconnect with its {@code Last-Event-ID}.
+     * @param lastEventId id of the last change received, to resume after it; if some of the following changes are
+     * no longer kept, a {@value #RESET_EVENT} event is sent first
+     * @return the {@link SseEmitter} of the changes, completed after {@code restaurant.change-feed.timeout}
+     */
+    @GetMapping(value = "", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        log.debug("REST request to stream the changes after: " + lastEventId);
+        final SseEmitter emitter = new SseEmitter(timeout);
+        final ChangeFeedService.Subscription subscription = changeFeedService.subscribe(lastEventId, new ChangeFeedService.Subscriber() {
+            @Override
+            public void onChange(Change change) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(change.getSequence()))
+                        .reconnectTime(RECONNECT_DELAY)
+                        .data(change, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void onReset(long sequence) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(sequence))
+                        .name(RESET_EVENT)
+                        .data(""));
+            }
+
+            @Override
+            public void onHeartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment(""));
+            }
+
+            @Override
+            public void onOverflow() {
+                log.debug("Closing a change stream falling behind");
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+}
@@ -1,132 +1,435 @@
 package com.test.restaurant.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.restaurant.controller.util.BatchUtil;
+import com.test.restaurant.controller.util.ETagUtil;
+import com.test.restaurant.controller.util.NdjsonWriter;
+import com.test.restaurant.controller.util.PaginationUtil;
 import com.test.restaurant.entity.Ingredient;
 import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.IngredientIngestionService;
 import com.test.restaurant.service.IngredientService;
 import com.test.restaurant.service.RecipeService;
+import com.test.restaurant.service.dto.BatchItemResultDTO;
 import com.test.restaurant.service.dto.IngredientDTO;
-import org.modelmapper.ModelMapper;
+import com.test.restaurant.service.dto.IngredientListDTO;
+import com.test.restaurant.service.dto.RecipeDTO;
+import com.test.restaurant.service.ingestion.Ingestion;
+import com.test.restaurant.service.mapper.IngredientMapper;
+import com.test.restaurant.service.mapper.RecipeMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
+@Lazy(false)
 @RequestMapping("/ingredients")
 public class IngredientController {
+    /**
+     * Seconds a client is asked to wait before retrying when the ingestion queue is full.
+     */
+    private static final String INGESTION_RETRY_AFTER = "1";
+
     private final Logger log = LoggerFactory.getLogger(IngredientController.class);
 
     private final IngredientService ingredientService;
     private final RecipeService recipeService;
-    private final ModelMapper modelMapper;
+    private final IngredientIngestionService ingestionService;
+    private final IngredientMapper ingredientMapper;
+    private final RecipeMapper recipeMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
-    public IngredientController(IngredientService ingredientService, RecipeService recipeService, ModelMapper modelMapper) {
+    public IngredientController(IngredientService ingredientService, RecipeService recipeService, IngredientIngestionService ingestionService,
+                                IngredientMapper ingredientMapper, RecipeMapper recipeMapper, ObjectMapper objectMapper,
+                                Validator validator) {
         this.ingredientService = ingredientService;
         this.recipeService = recipeService;
-        this.modelMapper = modelMapper;
+        this.ingestionService = ingestionService;
+        this.ingredientMapper = ingredientMapper;
+        this.recipeMapper = recipeMapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
     /**
-     * {@code GET /ingredients} : Get a list of all ingredients.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body with the list of {@link IngredientDTO},
+     * {@code GET /ingredients} : Get a page of ingredients ordered by id.
+     * @param after id of the last ingredient of the previous page, omitted for the first page
+     * @param limit maximum number of ingredients in the page
+     * @param embedRecipe whether to embed the recipe of each ingredient or to return only its {@code recipeId}
+     * @param ids ids of the ingredients to get instead of a page, read with their recipes by one query
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, the {@code Link} header to the next page
+     * and with body with the list of {@link IngredientDTO} (the found ones in the order of {@code ids} if given),
+     * or with status {@code 400 (Bad Request)} if the limit or the number of ids is out of range
      */
     @GetMapping("")
-    public ResponseEntity<List<IngredientDTO>> getAllIngredients() {
-        log.debug("REST request to get all Ingredients");
-        final List<Ingredient> ingredients = ingredientService.findAll();
+    public ResponseEntity<List<IngredientDTO>> getAllIngredients(@RequestParam(name = "after", required = false) Long after,
+                                                                 @RequestParam(name = "limit", defaultValue = PaginationUtil.DEFAULT_LIMIT) int limit,
+                                                                 @RequestParam(name = "embedRecipe", defaultValue = "true") boolean embedRecipe,
+                                                                 @RequestParam(name = "ids", required = false) List<Long> ids) {
+        log.debug("REST request to get a page of Ingredients after: " + after);
+        if (!PaginationUtil.isValidLimit(limit) || (ids != null && !PaginationUtil.isValidIds(ids))) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (ids != null) {
+            return ResponseEntity.ok(PaginationUtil.orderByIds(ingredientService.findAllById(ids), ids, Ingredient::getId).stream()
+                    .map(ingredient -> convertToDto(ingredient, embedRecipe))
+                    .collect(Collectors.toList()));
+        }
+        final List<Ingredient> ingredients = ingredientService.findPage(after, limit);
+        final HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(), ingredients, Ingredient::getId, limit);
         final List<IngredientDTO> ingredientDTOS =  ingredients.stream()
-                .map(this::convertToDto)
+                .map(ingredient -> convertToDto(ingredient, embedRecipe))
                 .collect(Collectors.toList());
-        return new ResponseEntity<>(ingredientDTOS, HttpStatus.OK);
+        return new ResponseEntity<>(ingredientDTOS, headers, HttpStatus.OK);
+    }
+
+    /**
+     * {@code GET /ingredients?normalized=true} : Get a page of ingredients ordered by id, in the normalized shape:
+     * each recipe is sent once and the ingredients only reference it by {@code recipeId}.
+     * @param after id of the last ingredient of the previous page, omitted for the first page
+     * @param limit maximum number of ingredients in the page
+     * @param ids ids of the ingredients to get instead of a page, read with their recipes by one query
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, the {@code Link} header to the next page
+     * and with body the {@link IngredientListDTO} (the found ingredients in the order of {@code ids} if given),
+     * or with status {@code 400 (Bad Request)} if the limit or the number of ids is out of range
+     */
+    @GetMapping(value = "", params = "normalized=true")
+    public ResponseEntity<IngredientListDTO> getAllIngredientsNormalized(@RequestParam(name = "after", required = false) Long after,
+                                                                         @RequestParam(name = "limit", defaultValue = PaginationUtil.DEFAULT_LIMIT) int limit,
+                                                                         @RequestParam(name = "ids", required = false) List<Long> ids) {
+        log.debug("REST request to get a normalized page of Ingredients after: " + after);
+        if (!PaginationUtil.isValidLimit(limit) || (ids != null && !PaginationUtil.isValidIds(ids))) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (ids != null) {
+            return ResponseEntity.ok(convertToListDto(
+                    PaginationUtil.orderByIds(ingredientService.findAllById(ids), ids, Ingredient::getId)));
+        }
+        final List<Ingredient> ingredients = ingredientService.findPage(after, limit);
+        final HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(), ingredients, Ingredient::getId, limit);
+        return new ResponseEntity<>(convertToListDto(ingredients), headers, HttpStatus.OK);
+    }
+
+    /**
+     * {@code GET /ingredients/export} : Export all ingredients as newline delimited JSON.
+     * The ingredients are streamed from the database, so the response starts right away and memory stays flat.
+     * @param embedRecipe whether to embed the recipe of each ingredient or to return only its {@code recipeId}
+     * @param response the response the {@link IngredientDTO}s are written to, one per line
+     */
+    @GetMapping(value = "/export", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public void exportIngredients(@RequestParam(name = "embedRecipe", defaultValue = "true") boolean embedRecipe,
+                                  HttpServletResponse response) throws IOException {
+        log.debug("REST request to export all Ingredients");
+        response.setContentType(NdjsonWriter.APPLICATION_NDJSON_VALUE);
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response.getOutputStream())) {
+            ingredientService.export(ingredient -> writer.write(convertToDto(ingredient, embedRecipe)));
+        }
     }
 
     /**
      * {@code GET /ingredients/{id}} : Get an ingredient by id.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body with the found {@link IngredientDTO},
+     * @param embedRecipe whether to embed the recipe of the ingredient or to return only its {@code recipeId}
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, the {@code ETag} header
+     * and with body with the found {@link IngredientDTO},
+     * or with status {@code 304 (Not Modified)} and empty body if the {@code If-None-Match} header matches the {@code ETag}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<IngredientDTO> getIngredient(@PathVariable(name = "id") Long id) {
+    public ResponseEntity<IngredientDTO> getIngredient(@PathVariable(name = "id") Long id,
+                                                       @RequestParam(name = "embedRecipe", defaultValue = "true") boolean embedRecipe) {
         log.debug("REST request to get Ingredient by Id");
         final Ingredient foundIngredient = ingredientService.findById(id);
         if (foundIngredient == null) {
             log.error("Ingredient with id: " + id + " is not found");
             return ResponseEntity.notFound().build();
         }
-        final IngredientDTO found = convertToDto(foundIngredient);
-        return new ResponseEntity<>(found, HttpStatus.OK);
+        final IngredientDTO found = convertToDto(foundIngredient, embedRecipe);
+        return ResponseEntity.ok()
+                .eTag(generateETag(foundIngredient, embedRecipe))
+                .body(found);
     }
 
     /**
      * {@code POST /ingredients} : Create a new ingredient.
      * @param ingredientDTO
-     * @return the {@link ResponseEntity} with status {@code 200(OK)} and with body with the created Ingredient as {@link IngredientDTO}
+     * @param embedRecipe whether to embed the recipe in the response or to return only its {@code recipeId},
+     * in which case the recipe is not read and the creation costs a single INSERT statement
+     * @return the {@link ResponseEntity} with status {@code 200(OK)} and with body with the created Ingredient as {@link IngredientDTO},
+     * or with status {@code 422 (Unprocessable Entity)} if its recipe does not exist
      */
     @PostMapping("")
-    public ResponseEntity<IngredientDTO> createIngredient(@RequestBody @Valid IngredientDTO ingredientDTO) {
+    public ResponseEntity<IngredientDTO> createIngredient(@RequestBody @Valid IngredientDTO ingredientDTO,
+                                                          @RequestParam(name = "embedRecipe", defaultValue = "true") boolean embedRecipe) {
         log.debug("REST request to create Ingredient");
-        final Ingredient ingredient = convertToEntity(ingredientDTO);
+        final Ingredient ingredient = convertToEntity(ingredientDTO, embedRecipe);
         if (ingredient == null) {
             return ResponseEntity.unprocessableEntity().build();
         }
-        final IngredientDTO saved = convertToDto(ingredientService.save(ingredient));
+        final Ingredient savedIngredient;
+        try {
+            savedIngredient = ingredientService.save(ingredient);
+        } catch (DataIntegrityViolationException e) {
+            if (recipeService.exists(ingredient.getRecipe().getId())) {
+                throw e;
+            }
+            log.error("Recipe with id: " + ingredient.getRecipe().getId() + " was deleted meanwhile");
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        final IngredientDTO saved = convertToDto(savedIngredient, embedRecipe);
         return new ResponseEntity<>(saved, HttpStatus.OK);
     }
 
 
+    /**
+     * {@code POST /ingredients} with {@code Prefer: respond-async} : Queue the creation of a new ingredient.
+     * The ingredient is validated and its recipe checked right away, then it is written in the background
+     * together with the other queued ingredients.
+     * @param ingredientDTO
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)}, the {@code Location} header of the ingestion status
+     * and with body with the pending {@link BatchItemResultDTO},
+     * or with status {@code 422 (Unprocessable Entity)} if its recipe does not exist,
+     * or with status {@code 429 (Too Many Requests)} and the {@code Retry-After} header if the queue is full
+     */
+    @PostMapping(value = "", headers = "Prefer=respond-async")
+    public ResponseEntity<BatchItemResultDTO<IngredientDTO>> ingestIngredient(@RequestBody @Valid IngredientDTO ingredientDTO) {
+        log.debug("REST request to queue the creation of Ingredient");
+        final Ingredient ingredient = convertToEntity(ingredientDTO);
+        if (ingredient == null) {
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        final Ingestion ingestion = ingestionService.submit(ingredient);
+        if (ingestion == null) {
+            log.warn("Ingestion queue is full, rejecting Ingredient with name: " + ingredient.getName());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, INGESTION_RETRY_AFTER)
+                    .build();
+        }
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/ingestions/{id}")
+                        .buildAndExpand(ingestion.getId())
+                        .toUri())
+                .header("Preference-Applied", "respond-async")
+                .body(new BatchItemResultDTO<>(HttpStatus.ACCEPTED.value(), null, null));
+    }
+
+    /**
+     * {@code GET /ingredients/ingestions/{id}} : Get the outcome of a queued ingredient creation.
+     * @param id of the ingestion, from the {@code Location} header of the {@code 202 (Accepted)} response
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body with the {@link BatchItemResultDTO}
+     * of the ingestion: {@code 202 (Accepted)} while pending, {@code 201 (Created)} with the created ingredient,
+     * {@code 409 (Conflict)} if its name is already used or {@code 422 (Unprocessable Entity)} if its recipe was deleted;
+     * or with status {@code 404 (Not Found)} if the ingestion does not exist or has expired
+     */
+    @GetMapping("/ingestions/{id}")
+    public ResponseEntity<BatchItemResultDTO<IngredientDTO>> getIngestion(@PathVariable(name = "id") String id) {
+        log.debug("REST request to get Ingestion by id");
+        final Ingestion ingestion = ingestionService.findById(id);
+        if (ingestion == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(convertToResult(ingestion));
+    }
+
+
+    /**
+     * {@code POST /ingredients/batch} : Create new Ingredients and update the existing ones (the ones with an id).
+     * The referenced recipes are checked with one query and all ingredients are saved in one transaction
+     * with batched inserts and updates.
+     * @param ingredientDTOS the ingredients to save
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body with one {@link BatchItemResultDTO} per ingredient,
+     * in the same order: {@code 201 (Created)} or {@code 200 (OK)} with the saved ingredient, {@code 422 (Unprocessable Entity)}
+     * if the ingredient is invalid or its recipe does not exist, {@code 409 (Conflict)} if its name is already used
+     * or {@code 404 (Not Found)} if its id does not exist;
+     * or with status {@code 400 (Bad Request)} if the batch is empty or bigger than {@link BatchUtil#MAX_BATCH_SIZE}
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResultDTO<IngredientDTO>>> upsertIngredients(@RequestBody List<IngredientDTO> ingredientDTOS) {
+        log.debug("REST request to save a batch of " + ingredientDTOS.size() + " Ingredients");
+        if (!BatchUtil.isValidBatchSize(ingredientDTOS)) {
+            return ResponseEntity.badRequest().build();
+        }
+        final Set<Long> recipeIds = ingredientDTOS.stream()
+                .map(this::getRecipeId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        final Map<Long, Recipe> recipes = recipeService.findAllById(recipeIds).stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+
+        final List<BatchItemResultDTO<IngredientDTO>> results = new ArrayList<>(Collections.nCopies(ingredientDTOS.size(), null));
+        final List<Ingredient> ingredients = new ArrayList<>(Collections.nCopies(ingredientDTOS.size(), null));
+        for (int i = 0; i < ingredientDTOS.size(); i++) {
+            final IngredientDTO ingredientDTO = ingredientDTOS.get(i);
+            final String error = BatchUtil.validate(validator, ingredientDTO);
+            final Recipe recipe = recipes.get(getRecipeId(ingredientDTO));
+            if (error != null) {
+                results.set(i, BatchUtil.failure(HttpStatus.UNPROCESSABLE_ENTITY, error));
+            } else if (recipe == null) {
+                results.set(i, BatchUtil.failure(HttpStatus.UNPROCESSABLE_ENTITY, "Cannot found recipe with id: " + getRecipeId(ingredientDTO)));
+            } else {
+                final Ingredient ingredient = ingredientMapper.toEntity(ingredientDTO);
+                ingredient.setRecipe(recipe);
+                ingredients.set(i, ingredient);
+            }
+        }
+
+        final Set<String> names = ingredients.stream()
+                .filter(Objects::nonNull)
+                .map(Ingredient::getName)
+                .collect(Collectors.toSet());
+        final Map<String, Long> storedIds = ingredientService.findByNames(names).stream()
+                .collect(Collectors.toMap(Ingredient::getName, Ingredient::getId));
+        for (Integer i : BatchUtil.findNameConflicts(ingredients, Ingredient::getId, Ingredient::getName, storedIds)) {
+            results.set(i, BatchUtil.failure(HttpStatus.CONFLICT, "Ingredient with name: " + ingredients.get(i).getName() + " already exists"));
+            ingredients.set(i, null);
+        }
+
+        final boolean[] created = new boolean[ingredients.size()];
+        for (int i = 0; i < ingredients.size(); i++) {
+            created[i] = ingredients.get(i) != null && ingredients.get(i).getId() == null;
+        }
+        final List<Ingredient> toSave = ingredients.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        final Iterator<Ingredient> saved = ingredientService.upsertAll(toSave).iterator();
+        for (int i = 0; i < ingredients.size(); i++) {
+            if (ingredients.get(i) == null) {
+                continue;
+            }
+            final Ingredient savedIngredient = saved.next();
+            if (savedIngredient == null) {
+                results.set(i, BatchUtil.failure(HttpStatus.NOT_FOUND, "Ingredient with id: " + ingredients.get(i).getId() + " is not found"));
+            } else {
+                final HttpStatus status = created[i] ? HttpStatus.CREATED : HttpStatus.OK;
+                results.set(i, BatchUtil.success(status, convertToDto(savedIngredient)));
+            }
+        }
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
     /**
      * {@code PUT /ingredients/{id}} : Update an existing Ingredient.
+     * Existence and version are checked by the UPDATE statement itself.
      * @param id of the Ingredient to update
+     * @param ifMatch optional {@code ETag} of the Ingredient, the update is only done if it is still current
      * @param ingredientDTO
-     * @return the {@link ResponseEntity} with status {@code 200(OK)} and with body with the updated Ingredient as {@link IngredientDTO}
+     * @param embedRecipe whether to embed the recipe in the response or to return only its {@code recipeId},
+     * in which case the recipe is not read and, with {@code If-Match}, the update costs a single UPDATE statement
+     * @return the {@link ResponseEntity} with status {@code 200(OK)}, the new {@code ETag} header
+     * and with body with the updated Ingredient as {@link IngredientDTO},
+     * or with status {@code 422 (Unprocessable Entity)} if its recipe does not exist,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the {@code ETag}
      */
     @PutMapping("/{id}")
-    public ResponseEntity<IngredientDTO> updateIngredient(@PathVariable(name = "id") Long id, @RequestBody @Valid IngredientDTO ingredientDTO) {
+    public ResponseEntity<IngredientDTO> updateIngredient(@PathVariable(name = "id") Long id,
+                                                          @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                          @RequestBody @Valid IngredientDTO ingredientDTO,
+                                                          @RequestParam(name = "embedRecipe", defaultValue = "true") boolean embedRecipe) {
         log.debug("REST request to update Ingredient");
-        if (!isFound(id)) {
-            log.debug("Ingredient with id: " + id + " is not found");
-            return ResponseEntity.notFound().build();
-        }
         ingredientDTO.setId(id);
-        final Ingredient ingredient = convertToEntity(ingredientDTO);
+        final Ingredient ingredient = convertToEntity(ingredientDTO, embedRecipe);
         if (ingredient == null) {
+            return ingredientService.exists(id) ? ResponseEntity.unprocessableEntity().build() : ResponseEntity.notFound().build();
+        }
+        final Ingredient updatedIngredient;
+        try {
+            final long[] versions = ETagUtil.parseVersions(ifMatch);
+            updatedIngredient = ingredientService.update(ingredient, expectedVersion(versions), expectedRecipeVersion(versions));
+        } catch (DataIntegrityViolationException e) {
+            if (recipeService.exists(ingredient.getRecipe().getId())) {
+                throw e;
+            }
+            log.error("Recipe with id: " + ingredient.getRecipe().getId() + " was deleted meanwhile");
             return ResponseEntity.unprocessableEntity().build();
         }
-        final IngredientDTO updated = convertToDto(ingredientService.save(ingredient));
-        return new ResponseEntity<>(updated, HttpStatus.OK);
+        if (updatedIngredient == null) {
+            return notFoundOrPreconditionFailed(id, ifMatch);
+        }
+        final IngredientDTO updated = convertToDto(updatedIngredient, embedRecipe);
+        return ResponseEntity.ok()
+                .eTag(generateETag(updatedIngredient, embedRecipe))
+                .body(updated);
     }
 
     /**
      * {@code DELETE /ingredients/{id}} : Delete an existing Ingredient by id.
+     * Existence and version are checked by the DELETE statement itself.
      * @param id
-     * @return the {@link ResponseEntity} with status {@code 200(OK)} and empty body
+     * @param ifMatch optional {@code ETag} of the Ingredient, the deletion is only done if it is still current
+     * @return the {@link ResponseEntity} with status {@code 200(OK)} and empty body,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the {@code ETag}
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable(name = "id") Long id) {
+    public ResponseEntity<Void> delete(@PathVariable(name = "id") Long id,
+                                       @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.debug("REST request to delete Ingredient by id");
-        if (!isFound(id)) {
-            log.debug("Ingredient with id: " + id + " is not found");
-            return ResponseEntity.notFound().build();
+        final long[] versions = ETagUtil.parseVersions(ifMatch);
+        if (!ingredientService.delete(id, expectedVersion(versions), expectedRecipeVersion(versions))) {
+            return notFoundOrPreconditionFailed(id, ifMatch);
         }
-        ingredientService.delete(id);
         return ResponseEntity.ok().build();
     }
 
 //////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     private IngredientDTO convertToDto(Ingredient ingredient) {
-        return modelMapper.map(ingredient, IngredientDTO.class);
+        return ingredientMapper.toDto(ingredient);
+    }
+
+    private IngredientDTO convertToDto(Ingredient ingredient, boolean embedRecipe) {
+        return ingredientMapper.toDto(ingredient, embedRecipe);
+    }
+
+    private IngredientListDTO convertToListDto(List<Ingredient> ingredients) {
+        final Map<Long, RecipeDTO> recipeDTOS = new LinkedHashMap<>();
+        final List<IngredientDTO> ingredientDTOS = new ArrayList<>(ingredients.size());
+        for (Ingredient ingredient : ingredients) {
+            ingredientDTOS.add(convertToDto(ingredient, false));
+            final Recipe recipe = ingredient.getRecipe();
+            if (recipe != null) {
+                recipeDTOS.computeIfAbsent(recipe.getId(), id -> recipeMapper.toDto(recipe));
+            }
+        }
+        return new IngredientListDTO(new ArrayList<>(recipeDTOS.values()), ingredientDTOS);
     }
 
     private Ingredient convertToEntity(IngredientDTO ingredientDTO)  {
-        final Ingredient ingredient = modelMapper.map(ingredientDTO, Ingredient.class);
-        final Long recipeId = ingredientDTO.getRecipe().getId();
-        final Recipe foundRecipe = recipeService.findById(recipeId);
+        return convertToEntity(ingredientDTO, true);
+    }
+
+    /**
+     * @param loadRecipe whether to attach the loaded recipe, or only a reference to it when the response
+     * does not embed the recipe
+     */
+    private Ingredient convertToEntity(IngredientDTO ingredientDTO, boolean loadRecipe)  {
+        final Ingredient ingredient = ingredientMapper.toEntity(ingredientDTO);
+        final Long recipeId = getRecipeId(ingredientDTO);
+        final Recipe foundRecipe = recipeId == null ? null
+                : loadRecipe ? recipeService.findById(recipeId) : recipeService.getReference(recipeId);
         if (foundRecipe == null) {
             log.error("Cannot found recipe with id: " + recipeId);
             return null;
@@ -135,8 +438,63 @@ public class IngredientController {
         return ingredient;
     }
 
-    private boolean isFound(Long id) {
-        return ingredientService.findById(id) != null;
+    private BatchItemResultDTO<IngredientDTO> convertToResult(Ingestion ingestion) {
+        switch (ingestion.getStatus()) {
+            case PENDING:
+                return new BatchItemResultDTO<>(HttpStatus.ACCEPTED.value(), null, null);
+            case CREATED:
+                return BatchUtil.success(HttpStatus.CREATED, convertToDto(ingestion.getIngredient()));
+            case CONFLICT:
+                return BatchUtil.failure(HttpStatus.CONFLICT, ingestion.getError());
+            case INVALID:
+                return BatchUtil.failure(HttpStatus.UNPROCESSABLE_ENTITY, ingestion.getError());
+            default:
+                return BatchUtil.failure(HttpStatus.INTERNAL_SERVER_ERROR, ingestion.getError());
+        }
+    }
+
+    private Long getRecipeId(IngredientDTO ingredientDTO) {
+        return ingredientDTO.getRecipe() != null ? ingredientDTO.getRecipe().getId() : ingredientDTO.getRecipeId();
+    }
+
+    /**
+     * The embedded recipe is part of the representation, so its version is part of the {@code ETag} too.
+     */
+    private String generateETag(Ingredient ingredient, boolean embedRecipe) {
+        return embedRecipe
+                ? ETagUtil.generateETag(ingredient.getVersion(), ingredient.getRecipe().getVersion())
+                : ETagUtil.generateETag(ingredient.getVersion());
+    }
+
+    /**
+     * Version of the Ingredient in an {@code If-Match} header, {@code null} if any version matches.
+     */
+    private static Long expectedVersion(long[] versions) {
+        return versions == null ? null : versions[0];
+    }
+
+    /**
+     * Version of the recipe in an {@code If-Match} header holding the {@code ETag} of an Ingredient embedding its recipe,
+     * {@code null} if the {@code ETag} does not embed the recipe. The whole {@code ETag} has to match, not only
+     * the version of the Ingredient.
+     */
+    private static Long expectedRecipeVersion(long[] versions) {
+        if (versions == null || versions.length == 1) {
+            return null;
+        }
+        return versions.length == 2 ? versions[1] : ETagUtil.NO_MATCH;
+    }
+
+    /**
+     * Tells apart, once a conditional write has updated no row, a missing Ingredient from a stale {@code If-Match} header.
+     */
+    private <T> ResponseEntity<T> notFoundOrPreconditionFailed(Long id, String ifMatch) {
+        if (ifMatch != null && ingredientService.exists(id)) {
+            log.debug("Ingredient with id: " + id + " does not match " + ifMatch);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        log.debug("Ingredient with id: " + id + " is not found");
+        return ResponseEntity.notFound().build();
     }
 
 }
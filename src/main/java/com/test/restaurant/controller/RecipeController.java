@@ -1,60 +1,169 @@
 package com.test.restaurant.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.test.restaurant.controller.util.BatchUtil;
+import com.test.restaurant.controller.util.ETagUtil;
+import com.test.restaurant.controller.util.NdjsonWriter;
+import com.test.restaurant.controller.util.PaginationUtil;
+import com.test.restaurant.entity.Ingredient;
 import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.RecipeSearchService;
 import com.test.restaurant.service.RecipeService;
+import com.test.restaurant.service.dto.BatchItemResultDTO;
 import com.test.restaurant.service.dto.RecipeDTO;
-import org.modelmapper.ModelMapper;
+import com.test.restaurant.service.mapper.IngredientMapper;
+import com.test.restaurant.service.mapper.RecipeMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
+@Lazy(false)
 @RequestMapping("/recipes")
 public class RecipeController {
+    /**
+     * Value of the {@code expand} parameter embedding the ingredients of the recipes.
+     */
+    public static final String EXPAND_INGREDIENTS = "ingredients";
+
     private final Logger log = LoggerFactory.getLogger(RecipeController.class);
 
     private final RecipeService recipeService;
-    private final ModelMapper modelMapper;
+    private final RecipeSearchService recipeSearchService;
+    private final RecipeMapper recipeMapper;
+    private final IngredientMapper ingredientMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
-    public RecipeController(RecipeService recipeService, ModelMapper modelMapper) {
+    public RecipeController(RecipeService recipeService, RecipeSearchService recipeSearchService, RecipeMapper recipeMapper,
+                            IngredientMapper ingredientMapper, ObjectMapper objectMapper, Validator validator) {
         this.recipeService = recipeService;
-        this.modelMapper = modelMapper;
+        this.recipeSearchService = recipeSearchService;
+        this.recipeMapper = recipeMapper;
+        this.ingredientMapper = ingredientMapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
     /**
-     * {@code GET /recipes : Get a list of all recipes.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body with the list of {@link RecipeDTO},
+     * {@code GET /recipes} : Get a page of recipes ordered by id.
+     * @param after id of the last recipe of the previous page, omitted for the first page
+     * @param limit maximum number of recipes in the page
+     * @param expand {@code ingredients} to embed the ingredients of each recipe, all the page being read with two queries
+     * @param ids ids of the recipes to get instead of a page, read with one query
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, the {@code Link} header to the next page
+     * and with body with the list of {@link RecipeDTO} (the found ones in the order of {@code ids} if given),
+     * or with status {@code 400 (Bad Request)} if the limit or the number of ids is out of range or the expansion is unknown
      */
     @GetMapping("")
-    public ResponseEntity<List<RecipeDTO>> getAllRecipes() {
-        log.debug("REST request to get all recipes");
-        final List<Recipe> recipes = recipeService.findAll();
-        final List<RecipeDTO> recipeDTOS =  recipes.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return new ResponseEntity<>(recipeDTOS, HttpStatus.OK);
+    public ResponseEntity<List<RecipeDTO>> getAllRecipes(@RequestParam(name = "after", required = false) Long after,
+                                                         @RequestParam(name = "limit", defaultValue = PaginationUtil.DEFAULT_LIMIT) int limit,
+                                                         @RequestParam(name = "expand", required = false) String expand,
+                                                         @RequestParam(name = "ids", required = false) List<Long> ids) {
+        log.debug("REST request to get a page of recipes after: " + after);
+        if (!PaginationUtil.isValidLimit(limit) || !isValidExpand(expand) || (ids != null && !PaginationUtil.isValidIds(ids))) {
+            return ResponseEntity.badRequest().build();
+        }
+        final boolean expandIngredients = expand != null;
+        if (ids != null) {
+            final List<Recipe> found = expandIngredients
+                    ? recipeService.findAllWithIngredientsById(ids)
+                    : recipeService.findAllById(ids);
+            return ResponseEntity.ok(PaginationUtil.orderByIds(found, ids, Recipe::getId).stream()
+                    .map(recipe -> expandIngredients ? convertToDtoWithIngredients(recipe) : convertToDto(recipe))
+                    .collect(Collectors.toList()));
+        }
+        final List<Recipe> recipes = expandIngredients
+                ? recipeService.findPageWithIngredients(after, limit)
+                : recipeService.findPage(after, limit);
+        final HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(), recipes, Recipe::getId, limit);
+        final List<RecipeDTO> recipeDTOS = expandIngredients
+                ? recipes.stream().map(this::convertToDtoWithIngredients).collect(Collectors.toList())
+                : recipeMapper.toDto(recipes);
+        return new ResponseEntity<>(recipeDTOS, headers, HttpStatus.OK);
+    }
+
+    /**
+     * {@code GET /recipes/search} : Get a page of the recipes using an ingredient, ordered by id.
+     * @param ingredient name or beginning of the name of the ingredient, case insensitive
+     * @param after id of the last recipe of the previous page, omitted for the first page
+     * @param limit maximum number of recipes in the page
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, the {@code Link} header to the next page
+     * and with body with the list of {@link RecipeDTO},
+     * or with status {@code 400 (Bad Request)} if the ingredient is blank or the limit is out of range
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<RecipeDTO>> searchRecipes(@RequestParam(name = "ingredient") String ingredient,
+                                                         @RequestParam(name = "after", required = false) Long after,
+                                                         @RequestParam(name = "limit", defaultValue = PaginationUtil.DEFAULT_LIMIT) int limit) {
+        log.debug("REST request to search recipes by ingredient: " + ingredient);
+        if (ingredient.trim().isEmpty() || !PaginationUtil.isValidLimit(limit)) {
+            return ResponseEntity.badRequest().build();
+        }
+        final List<Recipe> recipes = recipeSearchService.findByIngredientPrefix(ingredient, after, limit);
+        final HttpHeaders headers = PaginationUtil.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(), recipes, Recipe::getId, limit);
+        return new ResponseEntity<>(recipeMapper.toDto(recipes), headers, HttpStatus.OK);
+    }
+
+    /**
+     * {@code GET /recipes/export} : Export all recipes as newline delimited JSON.
+     * The recipes are streamed from the database, so the response starts right away and memory stays flat.
+     * @param response the response the {@link RecipeDTO}s are written to, one per line
+     */
+    @GetMapping(value = "/export", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    public void exportRecipes(HttpServletResponse response) throws IOException {
+        log.debug("REST request to export all recipes");
+        response.setContentType(NdjsonWriter.APPLICATION_NDJSON_VALUE);
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response.getOutputStream())) {
+            recipeService.export(recipe -> writer.write(convertToDto(recipe)));
+        }
     }
 
     /**
      * {@code GET /recipes/{id}} : Get a recipe by id.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body with the found {@link RecipeDTO},
+     * @param expand {@code ingredients} to embed the ingredients of the recipe, read by the same query
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, the {@code ETag} header
+     * and with body with the found {@link RecipeDTO},
+     * or with status {@code 304 (Not Modified)} and empty body if the {@code If-None-Match} header matches the {@code ETag},
+     * or with status {@code 400 (Bad Request)} if the expansion is unknown
      */
     @GetMapping("/{id}")
-    public ResponseEntity<RecipeDTO> getRecipeById(@PathVariable(name = "id") Long id) {
+    public ResponseEntity<RecipeDTO> getRecipeById(@PathVariable(name = "id") Long id,
+                                                   @RequestParam(name = "expand", required = false) String expand) {
         log.debug("REST request to get Recipe by Id");
-        final Recipe foundRecipe = recipeService.findById(id);
+        if (!isValidExpand(expand)) {
+            return ResponseEntity.badRequest().build();
+        }
+        final boolean expandIngredients = expand != null;
+        final Recipe foundRecipe = expandIngredients ? recipeService.findWithIngredientsById(id) : recipeService.findById(id);
         if (foundRecipe == null) {
             log.error("Recipe with id: " + id + " is not found");
             return ResponseEntity.notFound().build();
         }
-        final RecipeDTO found = convertToDto(foundRecipe);
-        return new ResponseEntity<>(found, HttpStatus.OK);
+        final RecipeDTO found = expandIngredients ? convertToDtoWithIngredients(foundRecipe) : convertToDto(foundRecipe);
+        return ResponseEntity.ok()
+                .eTag(expandIngredients ? generateETagWithIngredients(foundRecipe) : ETagUtil.generateETag(foundRecipe.getVersion()))
+                .body(found);
     }
 
     /**
@@ -71,52 +180,158 @@ public class RecipeController {
     }
 
 
+    /**
+     * {@code POST /recipes/batch} : Create new Recipes and update the existing ones (the ones with an id).
+     * All recipes are saved in one transaction with batched inserts and updates.
+     * @param recipeDTOS the recipes to save
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body with one {@link BatchItemResultDTO} per recipe,
+     * in the same order: {@code 201 (Created)} or {@code 200 (OK)} with the saved recipe, {@code 422 (Unprocessable Entity)}
+     * if the recipe is invalid, {@code 409 (Conflict)} if its name is already used or {@code 404 (Not Found)} if its id does not exist;
+     * or with status {@code 400 (Bad Request)} if the batch is empty or bigger than {@link BatchUtil#MAX_BATCH_SIZE}
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResultDTO<RecipeDTO>>> upsertRecipes(@RequestBody List<RecipeDTO> recipeDTOS) {
+        log.debug("REST request to save a batch of " + recipeDTOS.size() + " Recipes");
+        if (!BatchUtil.isValidBatchSize(recipeDTOS)) {
+            return ResponseEntity.badRequest().build();
+        }
+        final List<BatchItemResultDTO<RecipeDTO>> results = new ArrayList<>(Collections.nCopies(recipeDTOS.size(), null));
+        final List<Recipe> recipes = new ArrayList<>(Collections.nCopies(recipeDTOS.size(), null));
+        for (int i = 0; i < recipeDTOS.size(); i++) {
+            final String error = BatchUtil.validate(validator, recipeDTOS.get(i));
+            if (error != null) {
+                results.set(i, BatchUtil.failure(HttpStatus.UNPROCESSABLE_ENTITY, error));
+            } else {
+                recipes.set(i, convertToEntity(recipeDTOS.get(i)));
+            }
+        }
+
+        final Set<String> names = recipes.stream()
+                .filter(Objects::nonNull)
+                .map(Recipe::getName)
+                .collect(Collectors.toSet());
+        final Map<String, Long> storedIds = recipeService.findByNames(names).stream()
+                .collect(Collectors.toMap(Recipe::getName, Recipe::getId));
+        for (Integer i : BatchUtil.findNameConflicts(recipes, Recipe::getId, Recipe::getName, storedIds)) {
+            results.set(i, BatchUtil.failure(HttpStatus.CONFLICT, "Recipe with name: " + recipes.get(i).getName() + " already exists"));
+            recipes.set(i, null);
+        }
+
+        final boolean[] created = new boolean[recipes.size()];
+        for (int i = 0; i < recipes.size(); i++) {
+            created[i] = recipes.get(i) != null && recipes.get(i).getId() == null;
+        }
+        final List<Recipe> toSave = recipes.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        final Iterator<Recipe> saved = recipeService.upsertAll(toSave).iterator();
+        for (int i = 0; i < recipes.size(); i++) {
+            if (recipes.get(i) == null) {
+                continue;
+            }
+            final Recipe savedRecipe = saved.next();
+            if (savedRecipe == null) {
+                results.set(i, BatchUtil.failure(HttpStatus.NOT_FOUND, "Recipe with id: " + recipes.get(i).getId() + " is not found"));
+            } else {
+                final HttpStatus status = created[i] ? HttpStatus.CREATED : HttpStatus.OK;
+                results.set(i, BatchUtil.success(status, convertToDto(savedRecipe)));
+            }
+        }
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
     /**
      * {@code PUT /recipes/{id}} : Update an existing Recipe.
+     * Existence and version are checked by the UPDATE statement itself.
      * @param id of the Recipe to update
+     * @param ifMatch optional {@code ETag} of the Recipe, the update is only done if it is still current
      * @param recipeDTO
-     * @return the {@link ResponseEntity} with status {@code 200(OK)} and with body with the updated Recipe as {@link RecipeDTO}
+     * @return the {@link ResponseEntity} with status {@code 200(OK)}, the new {@code ETag} header
+     * and with body with the updated Recipe as {@link RecipeDTO},
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the {@code ETag}
      */
     @PutMapping("/{id}")
-    public ResponseEntity<RecipeDTO> update(@PathVariable(name = "id") Long id, @RequestBody @Valid RecipeDTO recipeDTO) {
+    public ResponseEntity<RecipeDTO> update(@PathVariable(name = "id") Long id,
+                                            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                            @RequestBody @Valid RecipeDTO recipeDTO) {
         log.debug("REST request to update Recipe");
-        if (!isFound(id)) {
-            log.error("Recipe with id: " + id + " is not found");
-            return ResponseEntity.notFound().build();
-        }
         recipeDTO.setId(id);
         final Recipe recipe = convertToEntity(recipeDTO);
-        final RecipeDTO updated = convertToDto(recipeService.save(recipe));
-        return new ResponseEntity<>(updated, HttpStatus.OK);
+        final Recipe updatedRecipe = recipeService.update(recipe, ETagUtil.parseVersion(ifMatch));
+        if (updatedRecipe == null) {
+            return notFoundOrPreconditionFailed(id, ifMatch);
+        }
+        final RecipeDTO updated = convertToDto(updatedRecipe);
+        return ResponseEntity.ok()
+                .eTag(ETagUtil.generateETag(updatedRecipe.getVersion()))
+                .body(updated);
     }
 
     /**
      * {@code DELETE /recipes/{id}} : Delete an existing Recipe by id.
+     * Existence and version are checked by the DELETE statement itself.
      * @param id
-     * @return the {@link ResponseEntity} with status {@code 200(OK)} and empty body
+     * @param ifMatch optional {@code ETag} of the Recipe, the deletion is only done if it is still current
+     * @return the {@link ResponseEntity} with status {@code 200(OK)} and empty body,
+     * or with status {@code 412 (Precondition Failed)} if the {@code If-Match} header does not match the {@code ETag}
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable(name = "id") Long id) {
+    public ResponseEntity<Void> delete(@PathVariable(name = "id") Long id,
+                                       @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.debug("REST request to delete Recipe by id");
-        if (!isFound(id)) {
-            log.debug("Recipe with id: " + id + " is not found");
-            return ResponseEntity.notFound().build();
+        if (!recipeService.delete(id, ETagUtil.parseVersion(ifMatch))) {
+            return notFoundOrPreconditionFailed(id, ifMatch);
         }
-        recipeService.delete(id);
         return ResponseEntity.ok().build();
     }
 
 /////////////////////////////////////////////////////////////////////////////////////////////////////
 
     private RecipeDTO convertToDto(Recipe recipe) {
-        return modelMapper.map(recipe, RecipeDTO.class);
+        return recipeMapper.toDto(recipe);
+    }
+
+    /**
+     * The ingredients must have been fetched with the recipe, each one is mapped with its {@code recipeId} only.
+     */
+    private RecipeDTO convertToDtoWithIngredients(Recipe recipe) {
+        final RecipeDTO recipeDTO = recipeMapper.toDto(recipe);
+        recipeDTO.setIngredients(recipe.getIngredients().stream()
+                .map(ingredient -> ingredientMapper.toDto(ingredient, false))
+                .collect(Collectors.toList()));
+        return recipeDTO;
     }
 
     private Recipe convertToEntity(RecipeDTO recipeDTO) {
-        return modelMapper.map(recipeDTO, Recipe.class);
+        return recipeMapper.toEntity(recipeDTO);
+    }
+
+    private static boolean isValidExpand(String expand) {
+        return expand == null || EXPAND_INGREDIENTS.equals(expand);
+    }
+
+    /**
+     * The ingredients are part of the representation, so the {@code ETag} also changes when an ingredient is added,
+     * updated or removed: it is made of the recipe version and of a hash of the ids and versions of its ingredients.
+     */
+    private static String generateETagWithIngredients(Recipe recipe) {
+        int hash = 1;
+        for (Ingredient ingredient : recipe.getIngredients()) {
+            hash = 31 * hash + Long.hashCode(ingredient.getId());
+            hash = 31 * hash + Long.hashCode(ingredient.getVersion());
+        }
+        return ETagUtil.generateETag(recipe.getVersion(), Integer.toUnsignedLong(hash));
     }
 
-    private boolean isFound(Long id) {
-        return recipeService.findById(id) != null;
+    /**
+     * Tells apart, once a conditional write has updated no row, a missing Recipe from a stale {@code If-Match} header.
+     */
+    private <T> ResponseEntity<T> notFoundOrPreconditionFailed(Long id, String ifMatch) {
+        if (ifMatch != null && recipeService.exists(id)) {
+            log.debug("Recipe with id: " + id + " does not match " + ifMatch);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        log.debug("Recipe with id: " + id + " is not found");
+        return ResponseEntity.notFound().build();
     }
 }
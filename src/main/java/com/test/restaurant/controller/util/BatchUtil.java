@@ -0,0 +1,75 @@
+package com.test.restaurant.controller.util;
+
+import com.test.restaurant.service.dto.BatchItemResultDTO;
+import org.springframework.http.HttpStatus;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for handling batch requests.
+ */
+public final class BatchUtil {
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private BatchUtil() {
+    }
+
+    public static boolean isValidBatchSize(List<?> items) {
+        return !items.isEmpty() && items.size() <= MAX_BATCH_SIZE;
+    }
+
+    /**
+     * Validates the item against its bean validation constraints.
+     * @return the description of the violations, {@code null} if the item is valid
+     */
+    public static String validate(Validator validator, Object item) {
+        final Set<ConstraintViolation<Object>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Finds the items whose name is used either by another stored entity or by a previous item of the batch.
+     * @param items the items of the batch, {@code null} for the ones already rejected
+     * @param storedIds ids of the stored entities by name
+     * @return the indexes of the conflicting items
+     */
+    public static <T> Set<Integer> findNameConflicts(List<T> items, Function<T, Long> idExtractor,
+                                                     Function<T, String> nameExtractor, Map<String, Long> storedIds) {
+        final Set<Integer> conflicts = new HashSet<>();
+        final Map<String, Integer> batchNames = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            final T item = items.get(i);
+            if (item == null) {
+                continue;
+            }
+            final String name = nameExtractor.apply(item);
+            final Long storedId = storedIds.get(name);
+            if ((storedId != null && !storedId.equals(idExtractor.apply(item))) || batchNames.putIfAbsent(name, i) != null) {
+                conflicts.add(i);
+            }
+        }
+        return conflicts;
+    }
+
+    public static <T> BatchItemResultDTO<T> success(HttpStatus status, T item) {
+        return new BatchItemResultDTO<>(status.value(), item, null);
+    }
+
+    public static <T> BatchItemResultDTO<T> failure(HttpStatus status, String error) {
+        return new BatchItemResultDTO<>(status.value(), null, error);
+    }
+}
@@ -0,0 +1,71 @@
+package com.test.restaurant.controller.util;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for handling entity tags built from the entity versions.
+ */
+public final class ETagUtil {
+    /**
+     * Version returned for an {@code If-Match} header that cannot match any entity version.
+     */
+    public static final long NO_MATCH = -1L;
+
+    private ETagUtil() {
+    }
+
+    /**
+     * Generates a strong entity tag from the versions of the entities making up a representation,
+     * e.g. {@code "3"} for a recipe or {@code "3-1"} for an ingredient embedding its recipe.
+     * @param versions versions of the entities, the first one being the version of the requested entity
+     * @return the quoted entity tag
+     */
+    public static String generateETag(long... versions) {
+        return Arrays.stream(versions)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining("-", "\"", "\""));
+    }
+
+    /**
+     * Extracts the version of the requested entity from an {@code If-Match} header holding a single entity tag
+     * of a single version. A composite entity tag, e.g. {@code "3-1"}, depends on other entities than the requested
+     * one, so it cannot match.
+     * @param ifMatch the {@code If-Match} header value, may be {@code null}
+     * @return {@code null} if the header is absent or {@code *} (any version matches), the version of the entity tag,
+     * or {@link #NO_MATCH} if the header is not an entity tag of a single version generated by
+     * {@link #generateETag(long...)}
+     */
+    public static Long parseVersion(String ifMatch) {
+        final long[] versions = parseVersions(ifMatch);
+        if (versions == null) {
+            return null;
+        }
+        return versions.length == 1 ? versions[0] : NO_MATCH;
+    }
+
+    /**
+     * Extracts all the versions from an {@code If-Match} header holding a single entity tag, in the order given
+     * to {@link #generateETag(long...)}.
+     * @param ifMatch the {@code If-Match} header value, may be {@code null}
+     * @return {@code null} if the header is absent or {@code *} (any version matches), the versions of the entity tag,
+     * or the single version {@link #NO_MATCH} if the header is not an entity tag generated by
+     * {@link #generateETag(long...)}
+     */
+    public static long[] parseVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        final String tag = ifMatch.trim();
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return new long[]{NO_MATCH};
+        }
+        try {
+            return Arrays.stream(tag.substring(1, tag.length() - 1).split("-", -1))
+                    .mapToLong(Long::parseLong)
+                    .toArray();
+        } catch (NumberFormatException e) {
+            return new long[]{NO_MATCH};
+        }
+    }
+}
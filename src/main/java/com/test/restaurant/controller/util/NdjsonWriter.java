@@ -0,0 +1,49 @@
+package com.test.restaurant.controller.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes objects as newline delimited JSON, one object per line, flushing the output every
+ * {@link #FLUSH_SIZE} lines so that the client receives the data in chunks while it is produced.
+ */
+public class NdjsonWriter implements Closeable {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final int FLUSH_SIZE = 100;
+
+    private final JsonGenerator generator;
+    private int pending;
+
+    public NdjsonWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        this.generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * Writes the value followed by a new line.
+     * @throws UncheckedIOException if the value cannot be written, e.g. the client went away
+     */
+    public void write(Object value) {
+        try {
+            generator.writeObject(value);
+            generator.writeRaw('\n');
+            if (++pending == FLUSH_SIZE) {
+                generator.flush();
+                pending = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,74 @@
+package com.test.restaurant.controller.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for handling keyset (cursor) pagination.
+ */
+public final class PaginationUtil {
+    public static final String DEFAULT_LIMIT = "100";
+    public static final int MAX_LIMIT = 1000;
+
+    private PaginationUtil() {
+    }
+
+    public static boolean isValidLimit(int limit) {
+        return limit > 0 && limit <= MAX_LIMIT;
+    }
+
+    /**
+     * @return whether the ids of a multi-get are between 1 and {@link #MAX_LIMIT}, none being empty
+     */
+    public static boolean isValidIds(List<Long> ids) {
+        return !ids.isEmpty() && ids.size() <= MAX_LIMIT && !ids.contains(null);
+    }
+
+    /**
+     * Orders the elements found by id like the requested ids, the ids without element and the repeated ones being skipped.
+     * @param found the elements found by id, in any order
+     * @param ids the requested ids
+     * @param idExtractor extracts the id from an element
+     * @return the found elements, in the order of the requested ids
+     */
+    public static <T> List<T> orderByIds(Collection<T> found, List<Long> ids, Function<T, Long> idExtractor) {
+        final Map<Long, T> byId = found.stream()
+                .collect(Collectors.toMap(idExtractor, Function.identity()));
+        return ids.stream()
+                .distinct()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Generates the {@code Link} header pointing to the next page of a keyset paginated list.
+     * The header is only added when the page is full, i.e. when more elements may follow.
+     * @param uriBuilder builder of the current request uri
+     * @param page the current page
+     * @param idExtractor extracts the cursor (id) from an element of the page
+     * @param limit requested page size
+     * @return the {@link HttpHeaders}
+     */
+    public static <T> HttpHeaders generateCursorHttpHeaders(UriComponentsBuilder uriBuilder, List<T> page,
+                                                            Function<T, Long> idExtractor, int limit) {
+        final HttpHeaders headers = new HttpHeaders();
+        if (page.size() < limit) {
+            return headers;
+        }
+        final Long nextCursor = idExtractor.apply(page.get(page.size() - 1));
+        final String next = uriBuilder
+                .replaceQueryParam("after", nextCursor)
+                .replaceQueryParam("limit", limit)
+                .toUriString();
+        headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        return headers;
+    }
+}
@@ -1,6 +1,8 @@
 package com.test.restaurant.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -8,10 +10,13 @@ import javax.validation.constraints.Size;
 import java.io.Serializable;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "ingredients")
 public class Ingredient implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredients_seq")
+    @SequenceGenerator(name = "ingredients_seq", sequenceName = "ingredients_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -19,11 +24,15 @@ public class Ingredient implements Serializable {
     @Column(name = "name", length = 40, nullable = false, unique = true)
     private String name;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name="recipe_id", nullable = false)
     @JsonIgnore
     private Recipe recipe;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     public Long getId() {
         return id;
     }
@@ -47,4 +56,12 @@ public class Ingredient implements Serializable {
     public void setRecipe(Recipe recipe) {
         this.recipe = recipe;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -1,5 +1,8 @@
 package com.test.restaurant.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
@@ -8,10 +11,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "recipes")
 public class Recipe implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipes_seq")
+    @SequenceGenerator(name = "recipes_seq", sequenceName = "recipes_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -24,8 +30,13 @@ public class Recipe implements Serializable {
     @Column(name = "description", length = 100, nullable = false)
     private String description;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
 
     @OneToMany(mappedBy = "recipe")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Ingredient> ingredients = new ArrayList<>();
 
     public Long getId() {
@@ -59,4 +70,12 @@ public class Recipe implements Serializable {
     public void setIngredients(List<Ingredient> ingredients) {
         this.ingredients = ingredients;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -1,9 +1,82 @@
 package com.test.restaurant.repository;
 
 import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only by default, so that the reads not done in a transaction of the service are routed to the replicas,
+ * if any. The modifying queries join the transaction of the service.
+ */
 @Repository
-public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
+@Transactional(readOnly = true)
+public interface IngredientRepository extends JpaRepository<Ingredient, Long>, IngredientRepositoryCustom {
+
+    @Override
+    @EntityGraph(attributePaths = "recipe")
+    List<Ingredient> findAll();
+
+    /**
+     * Ingredient by id, fetched together with its recipe in a single statement.
+     */
+    @EntityGraph(attributePaths = "recipe")
+    Optional<Ingredient> findWithRecipeById(Long id);
+
+    /**
+     * Ingredients by id, fetched together with their recipes in a single statement.
+     */
+    @EntityGraph(attributePaths = "recipe")
+    List<Ingredient> findWithRecipeByIdIn(Collection<Long> ids);
+
+    /**
+     * Keyset page of ingredients: the ones with id greater than {@code id}, ordered by id.
+     * Recipes are fetched in the same statement.
+     */
+    @EntityGraph(attributePaths = "recipe")
+    List<Ingredient> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<Ingredient> findByNameIn(Collection<String> names);
+
+    /**
+     * Updates the ingredient and increments its version in a single statement,
+     * if it exists, has the expected version and its current recipe has the expected version.
+     * @param version expected version, {@code null} to update whatever the version
+     * @param recipeVersion expected version of the recipe the ingredient belongs to before the update,
+     * {@code null} to update whatever the version
+     * @return the number of updated rows, 0 if the ingredient does not exist or has another version
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Ingredient i set i.name = :name, i.recipe = :recipe, i.version = i.version + 1 " +
+            "where i.id = :id and (:version is null or i.version = :version) " +
+            "and (:recipeVersion is null or exists " +
+            "(select r.id from Recipe r where r.id = i.recipe.id and r.version = :recipeVersion))")
+    int updateIfVersionMatches(@Param("id") Long id, @Param("name") String name, @Param("recipe") Recipe recipe,
+                               @Param("version") Long version, @Param("recipeVersion") Long recipeVersion);
+
+    /**
+     * Deletes the ingredient in a single statement, if it exists, has the expected version and its recipe has
+     * the expected version.
+     * @param version expected version, {@code null} to delete whatever the version
+     * @param recipeVersion expected version of the recipe of the ingredient, {@code null} to delete whatever the version
+     * @return the number of deleted rows, 0 if the ingredient does not exist or has another version
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Ingredient i where i.id = :id and (:version is null or i.version = :version) " +
+            "and (:recipeVersion is null or exists " +
+            "(select r.id from Recipe r where r.id = i.recipe.id and r.version = :recipeVersion))")
+    int deleteIfVersionMatches(@Param("id") Long id, @Param("version") Long version,
+                               @Param("recipeVersion") Long recipeVersion);
 }
@@ -0,0 +1,30 @@
+package com.test.restaurant.repository;
+
+import com.test.restaurant.entity.Ingredient;
+
+import java.util.stream.Stream;
+
+/**
+ * Custom {@link Ingredient} queries, implemented by {@link IngredientRepositoryCustomImpl}.
+ */
+public interface IngredientRepositoryCustom {
+
+    /**
+     * Streams all ingredients together with their recipes ordered by id through a JDBC cursor.
+     * Must be called inside a transaction and the stream must be closed.
+     * @param fetchSize number of rows fetched per round trip
+     */
+    Stream<Ingredient> streamAll(int fetchSize);
+
+    /**
+     * Removes the ingredient from the persistence context, so that streamed rows do not accumulate in it.
+     */
+    void detach(Ingredient ingredient);
+
+    /**
+     * Evicts the ingredients of every recipe from the second-level cache, at once and again once the transaction
+     * completes, so that a read in between cannot cache them back as they were. To be called after a bulk update
+     * or delete of ingredients, which does not tell which recipes it changes.
+     */
+    void evictIngredientsOfRecipes();
+}
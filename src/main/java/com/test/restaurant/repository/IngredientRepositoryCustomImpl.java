@@ -0,0 +1,45 @@
+package com.test.restaurant.repository;
+
+import com.test.restaurant.config.HibernateCacheConfiguration;
+import com.test.restaurant.entity.Ingredient;
+import org.hibernate.Cache;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.stream.Stream;
+
+public class IngredientRepositoryCustomImpl implements IngredientRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Ingredient> streamAll(int fetchSize) {
+        return entityManager.createQuery("select i from Ingredient i join fetch i.recipe order by i.id", Ingredient.class)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public void detach(Ingredient ingredient) {
+        entityManager.detach(ingredient);
+    }
+
+    @Override
+    public void evictIngredientsOfRecipes() {
+        final Cache cache = entityManager.getEntityManagerFactory().getCache().unwrap(Cache.class);
+        cache.evictCollectionData(HibernateCacheConfiguration.RECIPE_INGREDIENTS_REGION);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evictCollectionData(HibernateCacheConfiguration.RECIPE_INGREDIENTS_REGION);
+                }
+            });
+        }
+    }
+}
@@ -1,9 +1,102 @@
 package com.test.restaurant.repository;
 
 import com.test.restaurant.entity.Recipe;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only by default, so that the reads not done in a transaction of the service are routed to the replicas,
+ * if any. The modifying queries join the transaction of the service.
+ */
 @Repository
-public interface RecipeRepository extends JpaRepository<Recipe, Long> {
+@Transactional(readOnly = true)
+public interface RecipeRepository extends JpaRepository<Recipe, Long>, RecipeRepositoryCustom {
+
+    /**
+     * All recipes, the result being kept by the query cache until a recipe is written.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Recipe> findAll();
+
+    /**
+     * Keyset page of recipes: the ones with id greater than {@code id}, ordered by id. Kept by the query cache.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Recipe> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Finds the recipe by a query, which reads the database even when the second-level cache holds the recipe:
+     * unlike {@link #findById}, it sees the changes of the bulk statements of the current transaction,
+     * which only evict the cache once it completes.
+     */
+    Optional<Recipe> findCurrentById(Long id);
+
+    @Query("select r.id from Recipe r")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Long> findAllIds();
+
+    /**
+     * Ids of the recipes with the most ingredients first. Kept by the query cache.
+     */
+    @Query("select r.id from Recipe r left join r.ingredients i group by r.id order by count(i) desc, r.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Long> findIdsOrderByIngredientCountDesc(Pageable pageable);
+
+    /**
+     * Keyset page of recipe ids: the ones greater than {@code id}, in ascending order. Kept by the query cache.
+     */
+    @Query("select r.id from Recipe r where r.id > :id order by r.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Long> findIdsByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the recipe with its ingredients, fetched by the same query.
+     */
+    @Query("select distinct r from Recipe r left join fetch r.ingredients i where r.id = :id order by i.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    Optional<Recipe> findWithIngredientsById(@Param("id") Long id);
+
+    /**
+     * Finds the recipes with their ingredients, fetched by the same query, ordered by id.
+     */
+    @Query("select distinct r from Recipe r left join fetch r.ingredients i where r.id in :ids order by r.id, i.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Recipe> findWithIngredientsByIdIn(@Param("ids") Collection<Long> ids);
+
+    List<Recipe> findByNameIn(Collection<String> names);
+
+    /**
+     * Updates the recipe and increments its version in a single statement,
+     * if it exists and has the expected version.
+     * @param version expected version, {@code null} to update whatever the version
+     * @return the number of updated rows, 0 if the recipe does not exist or has another version
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Recipe r set r.name = :name, r.description = :description, r.version = r.version + 1 " +
+            "where r.id = :id and (:version is null or r.version = :version)")
+    int updateIfVersionMatches(@Param("id") Long id, @Param("name") String name,
+                               @Param("description") String description, @Param("version") Long version);
+
+    /**
+     * Deletes the recipe in a single statement, if it exists and has the expected version.
+     * @param version expected version, {@code null} to delete whatever the version
+     * @return the number of deleted rows, 0 if the recipe does not exist or has another version
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Recipe r where r.id = :id and (:version is null or r.version = :version)")
+    int deleteIfVersionMatches(@Param("id") Long id, @Param("version") Long version);
 }
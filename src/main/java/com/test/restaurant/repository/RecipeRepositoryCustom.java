@@ -0,0 +1,23 @@
+package com.test.restaurant.repository;
+
+import com.test.restaurant.entity.Recipe;
+
+import java.util.stream.Stream;
+
+/**
+ * Custom {@link Recipe} queries, implemented by {@link RecipeRepositoryCustomImpl}.
+ */
+public interface RecipeRepositoryCustom {
+
+    /**
+     * Streams all recipes ordered by id through a JDBC cursor.
+     * Must be called inside a transaction and the stream must be closed.
+     * @param fetchSize number of rows fetched per round trip
+     */
+    Stream<Recipe> streamAll(int fetchSize);
+
+    /**
+     * Removes the recipe from the persistence context, so that streamed rows do not accumulate in it.
+     */
+    void detach(Recipe recipe);
+}
@@ -0,0 +1,27 @@
+package com.test.restaurant.repository;
+
+import com.test.restaurant.entity.Recipe;
+import org.hibernate.annotations.QueryHints;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.stream.Stream;
+
+public class RecipeRepositoryCustomImpl implements RecipeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Recipe> streamAll(int fetchSize) {
+        return entityManager.createQuery("select r from Recipe r order by r.id", Recipe.class)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public void detach(Recipe recipe) {
+        entityManager.detach(recipe);
+    }
+}
@@ -0,0 +1,277 @@
+package com.test.restaurant.service;
+
+import com.test.restaurant.config.ApplicationProperties;
+import com.test.restaurant.service.event.IngredientDeletedEvent;
+import com.test.restaurant.service.event.IngredientSavedEvent;
+import com.test.restaurant.service.event.RecipeDeletedEvent;
+import com.test.restaurant.service.event.RecipeSavedEvent;
+import com.test.restaurant.service.feed.Change;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feed of the committed changes of the recipes and ingredients. Every change is numbered and kept in a ring buffer
+ * of the latest {@code restaurant.change-feed.capacity} changes, from which a subscriber can resume after the last change
+ * it received. Each subscriber has its own buffer of {@code restaurant.change-feed.subscriber-buffer} changes, sent
+ * in the order of the changes by a thread of its own, never by the writing threads: a slow subscriber does not hold
+ * back the others. A subscriber falling further behind is closed, to resume from the ring buffer.
+ * Idle subscribers are sent a heartbeat every {@code restaurant.change-feed.heartbeat}.
+ * <p>
+ * Sequence numbers start from the startup time in microseconds, so the ones of a previous run are older
+ * than any change kept, and a subscriber resuming from them is reset.
+ */
+@Service
+public class ChangeFeedService implements DisposableBean {
+    public static final String SUBSCRIBERS_METRIC = "change.feed.subscribers";
+
+    private final Change[] changes;
+    private final long firstSequence;
+    private long lastSequence;
+    private final int subscriberBuffer;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "change-feed-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger senderThreads = new AtomicInteger();
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "change-feed-" + senderThreads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ChangeFeedService(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        final ApplicationProperties.ChangeFeed properties = applicationProperties.getChangeFeed();
+        this.changes = new Change[properties.getCapacity()];
+        this.firstSequence = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        this.lastSequence = firstSequence - 1;
+        this.subscriberBuffer = properties.getSubscriberBuffer();
+        final long heartbeat = properties.getHeartbeat().toMillis();
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+
+        Gauge.builder(SUBSCRIBERS_METRIC, subscriptions, Set::size)
+                .description("Subscribers of the change feed")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onRecipeSaved(RecipeSavedEvent event) {
+        appendOnCommit(Change.Entity.RECIPE, event.isCreated() ? Change.Type.CREATED : Change.Type.UPDATED, event.getId());
+    }
+
+    @EventListener
+    public void onRecipeDeleted(RecipeDeletedEvent event) {
+        appendOnCommit(Change.Entity.RECIPE, Change.Type.DELETED, event.getId());
+    }
+
+    @EventListener
+    public void onIngredientSaved(IngredientSavedEvent event) {
+        appendOnCommit(Change.Entity.INGREDIENT, event.isCreated() ? Change.Type.CREATED : Change.Type.UPDATED, event.getId());
+    }
+
+    @EventListener
+    public void onIngredientDeleted(IngredientDeletedEvent event) {
+        appendOnCommit(Change.Entity.INGREDIENT, Change.Type.DELETED, event.getId());
+    }
+
+    /**
+     * Appends the change once the transaction is committed. Unlike a {@code @TransactionalEventListener} bound to the commit,
+     * the change is appended after the completion of the transaction, once the caches are evicted, so that
+     * a subscriber reading the changed item right away does not get its previous state.
+     */
+    private void appendOnCommit(Change.Entity entity, Change.Type type, Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(entity, type, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    append(entity, type, id);
+                }
+            }
+        });
+    }
+
+    /**
+     * Numbers the change, keeps it in place of the oldest one and queues it for the subscribers, without waiting
+     * for them.
+     * @return the numbered change
+     */
+    public synchronized Change append(Change.Entity entity, Change.Type type, Long id) {
+        final Change change = new Change(++lastSequence, entity, type, id);
+        changes[index(change.getSequence())] = change;
+        // queued while holding the lock, so that the subscribers get the changes in the order of their numbers
+        subscriptions.forEach(subscription -> subscription.deliver(change));
+        return change;
+    }
+
+    /**
+     * Subscribes to the changes numbered after {@code after}. The kept changes are sent first, then the following ones
+     * as they are committed. If some of the changes after {@code after} are no longer kept, the subscriber is reset
+     * and only sent the following ones.
+     * @param after number of the last change received by the subscriber, {@code null} to only get the following changes
+     */
+    public synchronized Subscription subscribe(Long after, Subscriber subscriber) {
+        final long oldest = Math.max(firstSequence, lastSequence - changes.length + 1);
+        final boolean reset = after != null && (after < oldest - 1 || after > lastSequence);
+        final Subscription subscription = new Subscription(subscriber);
+        if (reset) {
+            final long sequence = lastSequence;
+            subscription.queue(() -> subscriber.onReset(sequence));
+        } else if (after != null) {
+            for (long sequence = after + 1; sequence <= lastSequence; sequence++) {
+                final Change change = changes[index(sequence)];
+                subscription.queue(() -> subscriber.onChange(change));
+            }
+        }
+        // the kept changes are queued whatever their number, the buffer is for the following ones
+        subscription.limit = subscription.pending.size() + subscriberBuffer;
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % changes.length);
+    }
+
+    private void sendHeartbeats() {
+        subscriptions.forEach(Subscription::sendHeartbeat);
+    }
+
+    @Override
+    public void destroy() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscriptions.clear();
+    }
+
+    /**
+     * Receiver of the changes, called by one thread at a time, never by the writing threads.
+     * A subscriber throwing an exception is unsubscribed.
+     */
+    public interface Subscriber {
+        void onChange(Change change) throws IOException;
+
+        /**
+         * Called first when some of the changes the subscriber asked for are no longer kept:
+         * it has to read the recipes and ingredients again.
+         * @param sequence number of the last change committed, the subscriber being sent the following ones
+         */
+        void onReset(long sequence) throws IOException;
+
+        void onHeartbeat() throws IOException;
+
+        /**
+         * Called last when the subscriber fell too far behind and is unsubscribed: it has to subscribe again
+         * after the last change it received.
+         */
+        void onOverflow() throws IOException;
+    }
+
+    public final class Subscription {
+        private final Subscriber subscriber;
+        /**
+         * Calls of the subscriber not sent yet, guarded by the subscription.
+         */
+        private final Deque<Call> pending = new ArrayDeque<>();
+        private int limit;
+        private boolean sending;
+        private boolean closed;
+
+        private Subscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private synchronized void deliver(Change change) {
+            if (closed) {
+                return;
+            }
+            if (pending.size() >= limit) {
+                close();
+                queue(subscriber::onOverflow);
+                return;
+            }
+            queue(() -> subscriber.onChange(change));
+        }
+
+        /**
+         * Only sent to the subscribers with nothing else to send.
+         */
+        private synchronized void sendHeartbeat() {
+            if (!closed && pending.isEmpty()) {
+                queue(subscriber::onHeartbeat);
+            }
+        }
+
+        /**
+         * Queues the call, and starts the sender of the subscription if it is not running.
+         */
+        private synchronized void queue(Call call) {
+            pending.add(call);
+            if (!sending) {
+                try {
+                    senders.execute(this::send);
+                    sending = true;
+                } catch (RejectedExecutionException e) {
+                    // shutting down, the subscriptions are closed anyway
+                }
+            }
+        }
+
+        private void send() {
+            for (Call call = next(); call != null; call = next()) {
+                try {
+                    call.run();
+                } catch (IOException | RuntimeException e) {
+                    cancel();
+                }
+            }
+        }
+
+        private synchronized Call next() {
+            final Call call = pending.poll();
+            if (call == null) {
+                sending = false;
+            }
+            return call;
+        }
+
+        public synchronized void cancel() {
+            close();
+        }
+
+        /**
+         * Unsubscribes and drops the calls not sent yet.
+         */
+        private void close() {
+            closed = true;
+            pending.clear();
+            subscriptions.remove(this);
+        }
+    }
+
+    private interface Call {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,217 @@
+package com.test.restaurant.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.test.restaurant.config.ApplicationProperties;
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.service.ingestion.Ingestion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind creation of ingredients. Accepted ingredients are put on a bounded in-memory queue, drained by a single
+ * writer thread which creates them in batches, one transaction per batch. The outcome of every ingestion is kept
+ * for {@code restaurant.ingestion.status-time-to-live} so that callers can poll it.
+ * The queue being bounded, callers are told to back off instead of piling up when the database falls behind.
+ * <p>
+ * Queued ingredients are lost if the application dies before writing them; on a normal shutdown the queue is drained first.
+ */
+@Service
+public class IngredientIngestionService implements SmartLifecycle {
+    public static final String QUEUE_DEPTH_METRIC = "ingredient.ingestion.queue.depth";
+    public static final String BATCH_SIZE_METRIC = "ingredient.ingestion.batch.size";
+    public static final String BATCH_DURATION_METRIC = "ingredient.ingestion.batch.duration";
+    public static final String REJECTED_METRIC = "ingredient.ingestion.rejected";
+
+    private final Logger log = LoggerFactory.getLogger(IngredientIngestionService.class);
+
+    private final IngredientService ingredientService;
+    private final int batchSize;
+    private final BlockingQueue<Ingestion> queue;
+    private final Cache<String, Ingestion> ingestions;
+
+    private final DistributionSummary batchSizes;
+    private final Timer batchDurations;
+    private final Counter rejected;
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private Thread writer;
+
+    public IngredientIngestionService(IngredientService ingredientService, ApplicationProperties applicationProperties,
+                                      MeterRegistry meterRegistry) {
+        final ApplicationProperties.Ingestion properties = applicationProperties.getIngestion();
+        this.ingredientService = ingredientService;
+        this.batchSize = properties.getBatchSize();
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.ingestions = Caffeine.newBuilder()
+                .maximumSize(properties.getStatusMaximumSize())
+                .expireAfterWrite(properties.getStatusTimeToLive())
+                .build();
+
+        Gauge.builder(QUEUE_DEPTH_METRIC, queue, Collection::size)
+                .description("Ingredients waiting to be written")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder(BATCH_SIZE_METRIC)
+                .description("Ingredients written per transaction")
+                .register(meterRegistry);
+        this.batchDurations = Timer.builder(BATCH_DURATION_METRIC)
+                .description("Time to write a batch of ingredients")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(REJECTED_METRIC)
+                .description("Ingredients rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the creation of the ingredient, whose recipe must be set.
+     * Ingredients submitted before the writer is started are written once it is.
+     * @return the accepted ingestion, {@code null} if the queue is full or the writer is stopped
+     */
+    public Ingestion submit(Ingredient ingredient) {
+        final Ingestion ingestion = new Ingestion(ingredient);
+        if (stopped || !queue.offer(ingestion)) {
+            rejected.increment();
+            return null;
+        }
+        ingestions.put(ingestion.getId(), ingestion);
+        return ingestion;
+    }
+
+    /**
+     * @return the ingestion, {@code null} if it does not exist or its outcome has expired
+     */
+    public Ingestion findById(String id) {
+        return ingestions.getIfPresent(id);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "ingredient-ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops accepting ingredients and waits for the queued ones to be written.
+     */
+    @Override
+    public void stop() {
+        stopped = true;
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        final List<Ingestion> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                final Ingestion first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                batchSizes.record(batch.size());
+                batchDurations.record(() -> write(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Cannot write " + batch.size() + " ingredients", e);
+                batch.forEach(ingestion -> ingestion.failed(Ingestion.Status.FAILED, e.getMessage()));
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Creates the ingredients in one transaction. The ones whose name is already used are skipped beforehand;
+     * if the transaction still fails (a recipe deleted in between, a concurrent creation with the same name),
+     * the ingredients are created one by one to find the failing ones.
+     */
+    void write(List<Ingestion> batch) {
+        final List<Ingestion> toCreate = skipNameConflicts(batch);
+        if (toCreate.isEmpty()) {
+            return;
+        }
+        final List<Ingredient> ingredients = toCreate.stream()
+                .map(Ingestion::getIngredient)
+                .collect(Collectors.toList());
+        try {
+            final List<Ingredient> created = ingredientService.upsertAll(ingredients);
+            for (int i = 0; i < toCreate.size(); i++) {
+                toCreate.get(i).created(created.get(i));
+            }
+        } catch (DataAccessException e) {
+            log.debug("Cannot write " + toCreate.size() + " ingredients in one transaction, writing them one by one", e);
+            toCreate.forEach(this::writeOne);
+        }
+    }
+
+    private List<Ingestion> skipNameConflicts(List<Ingestion> batch) {
+        final List<String> names = batch.stream()
+                .map(ingestion -> ingestion.getIngredient().getName())
+                .collect(Collectors.toList());
+        final Collection<String> storedNames = ingredientService.findByNames(names).stream()
+                .map(Ingredient::getName)
+                .collect(Collectors.toSet());
+        final Set<String> batchNames = new HashSet<>();
+        final List<Ingestion> toCreate = new ArrayList<>(batch.size());
+        for (Ingestion ingestion : batch) {
+            final String name = ingestion.getIngredient().getName();
+            if (storedNames.contains(name) || batchNames.contains(name)) {
+                ingestion.failed(Ingestion.Status.CONFLICT, "Ingredient with name: " + name + " already exists");
+            } else {
+                batchNames.add(name);
+                toCreate.add(ingestion);
+            }
+        }
+        return toCreate;
+    }
+
+    private void writeOne(Ingestion ingestion) {
+        final Ingredient ingredient = ingestion.getIngredient();
+        // the rolled back transaction may have assigned an id
+        ingredient.setId(null);
+        try {
+            ingestion.created(ingredientService.upsertAll(Collections.singletonList(ingredient)).get(0));
+        } catch (DataAccessException e) {
+            ingredient.setId(null);
+            if (ingredientService.findByNames(Collections.singletonList(ingredient.getName())).isEmpty()) {
+                ingestion.failed(Ingestion.Status.INVALID, "Cannot found recipe with id: " + ingredient.getRecipe().getId());
+            } else {
+                ingestion.failed(Ingestion.Status.CONFLICT, "Ingredient with name: " + ingredient.getName() + " already exists");
+            }
+        }
+    }
+}
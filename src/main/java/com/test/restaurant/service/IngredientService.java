@@ -1,35 +1,259 @@
 package com.test.restaurant.service;
 
 
+import com.test.restaurant.config.ApplicationProperties;
+import com.test.restaurant.config.CacheConfiguration;
 import com.test.restaurant.entity.Ingredient;
 import com.test.restaurant.repository.IngredientRepository;
+import com.test.restaurant.service.batch.BatchLoader;
+import com.test.restaurant.service.batch.BatchLoaderFactory;
+import com.test.restaurant.service.batch.SingleFlight;
+import com.test.restaurant.service.event.IngredientDeletedEvent;
+import com.test.restaurant.service.event.IngredientSavedEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class IngredientService {
     private final IngredientRepository repository;
+    private final ApplicationProperties applicationProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BatchLoader<Long, Ingredient> ingredientLoader;
+    private final SingleFlight<Long, Ingredient> ingredientFlights;
+    private final SingleFlight<String, List<Ingredient>> ingredientListFlights;
+    private final AtomicLong version = new AtomicLong();
+    private final CacheManager cacheManager;
 
-    public IngredientService(IngredientRepository repository) {
+    public IngredientService(IngredientRepository repository, ApplicationProperties applicationProperties,
+                             ApplicationEventPublisher eventPublisher, BatchLoaderFactory batchLoaderFactory,
+                             CacheManager cacheManager, RecipeService recipeService) {
         this.repository = repository;
+        this.applicationProperties = applicationProperties;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        // ingredients embed their recipe, so the recipe changes evict the cached ingredients too
+        final LongSupplier flightVersion = () -> version.get() + recipeService.getVersion();
+        this.ingredientFlights = new SingleFlight<>(cacheManager.getCache(CacheConfiguration.INGREDIENTS), flightVersion);
+        this.ingredientListFlights = new SingleFlight<>(cacheManager.getCache(CacheConfiguration.INGREDIENT_LISTS),
+                flightVersion);
+        this.ingredientLoader = batchLoaderFactory.create(CacheConfiguration.INGREDIENTS,
+                id -> repository.findWithRecipeById(id).orElse(null),
+                ids -> findAllById(ids).stream()
+                        .collect(Collectors.toMap(Ingredient::getId, Function.identity())));
     }
 
+    /**
+     * Runs once the transaction committed, before the caches are evicted, so that the loads started before
+     * the change are not cached after the eviction.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(classes = {IngredientSavedEvent.class, IngredientDeletedEvent.class},
+            phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void incrementVersionOnCommit() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Runs after the completion of the transaction, hence once the caches have been evicted on commit.
+     */
+    @TransactionalEventListener(classes = {IngredientSavedEvent.class, IngredientDeletedEvent.class},
+            phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void incrementVersion() {
+        version.incrementAndGet();
+    }
 
+    /**
+     * Evicts the ingredients from the caches, along with the lists, as a write of the ingredients does once it commits.
+     */
+    public void evictCached(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        ids.forEach(cacheManager.getCache(CacheConfiguration.INGREDIENTS)::evict);
+        cacheManager.getCache(CacheConfiguration.INGREDIENT_LISTS).clear();
+    }
+
+    /**
+     * @return version of the ingredients, incremented after every ingredient change, once when it commits and again
+     * once the caches are up to date. A representation built from ingredients read after getting the version is current
+     * as long as the version is unchanged
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Cache misses of concurrent calls share one load.
+     */
     public List<Ingredient> findAll() {
-        return repository.findAll();
+        return ingredientListFlights.load("all", repository::findAll);
+    }
+
+    /**
+     * Returns at most {@code limit} ingredients with id greater than {@code after}, ordered by id.
+     * Cache misses of concurrent calls for the same page share one load.
+     * @param after cursor (id of the last ingredient of the previous page), {@code null} for the first page
+     * @param limit page size
+     */
+    public List<Ingredient> findPage(Long after, int limit) {
+        return ingredientListFlights.load(after + ":" + limit,
+                () -> repository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, PageRequest.of(0, limit)));
+    }
+
+    /**
+     * Passes every ingredient, ordered by id, to the consumer. Rows are read through a JDBC cursor
+     * and detached once consumed, so memory stays flat whatever the size of the table.
+     */
+    @Transactional(readOnly = true)
+    public void export(Consumer<Ingredient> consumer) {
+        try (Stream<Ingredient> ingredients = repository.streamAll(applicationProperties.getExport().getFetchSize())) {
+            ingredients.forEach(ingredient -> {
+                consumer.accept(ingredient);
+                repository.detach(ingredient);
+            });
+        }
     }
 
+    /**
+     * Cache misses of concurrent calls for the same id share one load, and the loads of different ids
+     * are loaded together, by one query per batch.
+     */
     public Ingredient findById(Long id) {
-        return repository.findById(id).orElse(null);
+        return ingredientFlights.load(id, () -> ingredientLoader.load(id));
     }
 
+    /**
+     * @return the ingredients with their recipes by id, fetched in a single statement
+     */
+    public List<Ingredient> findAllById(Collection<Long> ids) {
+        return repository.findWithRecipeByIdIn(ids);
+    }
+
+    /**
+     * @return the ingredients having one of the names
+     */
+    public List<Ingredient> findByNames(Collection<String> names) {
+        return repository.findByNameIn(names);
+    }
+
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.INGREDIENTS, key = "#result.id"),
+            @CacheEvict(cacheNames = CacheConfiguration.INGREDIENT_LISTS, allEntries = true)
+    })
+    @Transactional
     public Ingredient save(Ingredient ingredient) {
-        return repository.save(ingredient);
+        final boolean created = ingredient.getId() == null;
+        final Ingredient saved = repository.save(ingredient);
+        eventPublisher.publishEvent(new IngredientSavedEvent(saved, created));
+        return saved;
+    }
+
+    /**
+     * Creates the ingredients without id and updates the existing ones with id, in a single transaction.
+     * Existing ingredients are loaded with one query and the inserts and updates are sent in JDBC batches.
+     * @return the saved ingredients in the same order, {@code null} for the ones whose id does not exist
+     */
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfiguration.INGREDIENTS, CacheConfiguration.INGREDIENT_LISTS}, allEntries = true)
+    public List<Ingredient> upsertAll(List<Ingredient> ingredients) {
+        final Set<Long> ids = ingredients.stream()
+                .map(Ingredient::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        final Map<Long, Ingredient> existing = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+        final List<Ingredient> saved = new ArrayList<>(ingredients.size());
+        for (Ingredient ingredient : ingredients) {
+            if (ingredient.getId() == null) {
+                final Ingredient created = repository.save(ingredient);
+                eventPublisher.publishEvent(new IngredientSavedEvent(created, true));
+                saved.add(created);
+            } else {
+                final Ingredient found = existing.get(ingredient.getId());
+                if (found != null) {
+                    found.setName(ingredient.getName());
+                    found.setRecipe(ingredient.getRecipe());
+                    eventPublisher.publishEvent(new IngredientSavedEvent(found, false));
+                }
+                saved.add(found);
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Updates the name and the recipe of the ingredient with a single UPDATE statement,
+     * which checks both that the ingredient exists and that it has the expected versions.
+     * @param expectedVersion version the ingredient must have, {@code null} to update whatever the version
+     * @param expectedRecipeVersion version the recipe of the ingredient must have before the update,
+     * {@code null} to update whatever the version
+     * @return the updated ingredient with its new version, {@code null} if it does not exist or has another version
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.INGREDIENTS, key = "#ingredient.id"),
+            @CacheEvict(cacheNames = CacheConfiguration.INGREDIENT_LISTS, allEntries = true)
+    })
+    public Ingredient update(Ingredient ingredient, Long expectedVersion, Long expectedRecipeVersion) {
+        if (repository.updateIfVersionMatches(ingredient.getId(), ingredient.getName(), ingredient.getRecipe(),
+                expectedVersion, expectedRecipeVersion) == 0) {
+            return null;
+        }
+        repository.evictIngredientsOfRecipes();
+        eventPublisher.publishEvent(new IngredientSavedEvent(ingredient, false));
+        if (expectedVersion == null) {
+            return repository.findWithRecipeById(ingredient.getId()).orElse(null);
+        }
+        ingredient.setVersion(expectedVersion + 1);
+        return ingredient;
+    }
+
+    public boolean exists(Long id) {
+        return repository.existsById(id);
     }
 
-    public void delete(Long id) {
-        repository.deleteById(id);
+    /**
+     * Deletes the ingredient with a single DELETE statement, which checks both that the ingredient exists
+     * and that it has the expected versions.
+     * @param expectedVersion version the ingredient must have, {@code null} to delete whatever the version
+     * @param expectedRecipeVersion version the recipe of the ingredient must have, {@code null} to delete whatever
+     * the version
+     * @return {@code true} if the ingredient was deleted, {@code false} if it does not exist or has another version
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.INGREDIENTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfiguration.INGREDIENT_LISTS, allEntries = true)
+    })
+    public boolean delete(Long id, Long expectedVersion, Long expectedRecipeVersion) {
+        if (repository.deleteIfVersionMatches(id, expectedVersion, expectedRecipeVersion) == 0) {
+            return false;
+        }
+        repository.evictIngredientsOfRecipes();
+        eventPublisher.publishEvent(new IngredientDeletedEvent(id));
+        return true;
     }
 
 }
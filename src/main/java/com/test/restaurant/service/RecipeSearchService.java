@@ -0,0 +1,103 @@
+package com.test.restaurant.service;
+
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.event.IngredientDeletedEvent;
+import com.test.restaurant.service.event.IngredientSavedEvent;
+import com.test.restaurant.service.index.IngredientNameIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Finds recipes by the names of their ingredients through an in-memory {@link IngredientNameIndex}.
+ * The index is loaded once the application is ready and then kept up to date with the ingredient changes,
+ * applied once their transaction is committed.
+ */
+@Service
+public class RecipeSearchService {
+    private final Logger log = LoggerFactory.getLogger(RecipeSearchService.class);
+
+    private final IngredientService ingredientService;
+    private final RecipeService recipeService;
+    private volatile IngredientNameIndex index = new IngredientNameIndex();
+    /**
+     * Changes applied while the index is rebuilt, to apply to the new index too; {@code null} if not rebuilding.
+     * Guarded by the service, like the changes of the index.
+     */
+    private List<Consumer<IngredientNameIndex>> changesDuringRebuild;
+    private final Object rebuildLock = new Object();
+
+    public RecipeSearchService(IngredientService ingredientService, RecipeService recipeService) {
+        this.ingredientService = ingredientService;
+        this.recipeService = recipeService;
+    }
+
+    /**
+     * Loads all the ingredients into a new index, used by the searches once loaded. The changes committed while
+     * it loads are applied to it afterwards, in case it read the ingredients before them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            final IngredientNameIndex rebuilt = new IngredientNameIndex();
+            synchronized (this) {
+                changesDuringRebuild = new ArrayList<>();
+            }
+            try {
+                ingredientService.export(ingredient -> rebuilt.put(ingredient.getId(), ingredient.getName(), ingredient.getRecipe().getId()));
+                synchronized (this) {
+                    changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+                    index = rebuilt;
+                }
+            } finally {
+                synchronized (this) {
+                    changesDuringRebuild = null;
+                }
+            }
+            log.info("Indexed " + rebuilt.size() + " ingredients");
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientSaved(IngredientSavedEvent event) {
+        apply(target -> target.put(event.getId(), event.getName(), event.getRecipeId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientDeleted(IngredientDeletedEvent event) {
+        apply(target -> target.remove(event.getId()));
+    }
+
+    private synchronized void apply(Consumer<IngredientNameIndex> change) {
+        change.accept(index);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    /**
+     * Returns at most {@code limit} recipes having an ingredient whose name starts with {@code prefix}, ignoring case,
+     * with id greater than {@code after}, ordered by id. Only the found recipes are read from the database, by id.
+     * @param after cursor (id of the last recipe of the previous page), {@code null} for the first page
+     * @param limit page size
+     */
+    public List<Recipe> findByIngredientPrefix(String prefix, Long after, int limit) {
+        final List<Long> recipeIds = index.findRecipeIds(prefix, after, limit);
+        if (recipeIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return recipeService.findAllById(recipeIds).stream()
+                .sorted(Comparator.comparing(Recipe::getId))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,33 +1,335 @@
 package com.test.restaurant.service;
 
+import com.test.restaurant.config.ApplicationProperties;
+import com.test.restaurant.config.CacheConfiguration;
 import com.test.restaurant.entity.Recipe;
 import com.test.restaurant.repository.RecipeRepository;
+import com.test.restaurant.service.batch.BatchLoader;
+import com.test.restaurant.service.batch.BatchLoaderFactory;
+import com.test.restaurant.service.batch.SingleFlight;
+import com.test.restaurant.service.event.RecipeDeletedEvent;
+import com.test.restaurant.service.event.RecipeSavedEvent;
+import com.test.restaurant.service.index.RecipeIdIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class RecipeService {
+    private final Logger log = LoggerFactory.getLogger(RecipeService.class);
+
     private final RecipeRepository repository;
+    private final ApplicationProperties applicationProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RecipeIdIndex recipeIds = new RecipeIdIndex();
+    private final AtomicLong version = new AtomicLong();
+    private final BatchLoader<Long, Recipe> recipeLoader;
+    private final SingleFlight<Long, Recipe> recipeFlights;
+    private final SingleFlight<String, List<Recipe>> recipeListFlights;
+    private final CacheManager cacheManager;
 
-    public RecipeService(RecipeRepository repository) {
+    public RecipeService(RecipeRepository repository, ApplicationProperties applicationProperties,
+                         ApplicationEventPublisher eventPublisher, BatchLoaderFactory batchLoaderFactory,
+                         CacheManager cacheManager) {
         this.repository = repository;
+        this.applicationProperties = applicationProperties;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.recipeFlights = new SingleFlight<>(cacheManager.getCache(CacheConfiguration.RECIPES), version::get);
+        this.recipeListFlights = new SingleFlight<>(cacheManager.getCache(CacheConfiguration.RECIPE_LISTS), version::get);
+        this.recipeLoader = batchLoaderFactory.create(CacheConfiguration.RECIPES,
+                id -> repository.findById(id).orElse(null),
+                ids -> repository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Recipe::getId, Function.identity())));
+    }
+
+    /**
+     * Loads the ids of all the recipes into the existence index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRecipeIds() {
+        recipeIds.clear();
+        repository.findAllIds().forEach(recipeIds::add);
+        log.info("Indexed " + recipeIds.size() + " recipe ids");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeSaved(RecipeSavedEvent event) {
+        recipeIds.add(event.getId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeDeleted(RecipeDeletedEvent event) {
+        recipeIds.remove(event.getId());
+    }
+
+    /**
+     * Runs once the transaction committed, before the caches are evicted, so that the loads started before
+     * the change are not cached after the eviction.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(classes = {RecipeSavedEvent.class, RecipeDeletedEvent.class},
+            phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void incrementVersionOnCommit() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Runs after the completion of the transaction, hence once the caches have been evicted on commit.
+     */
+    @TransactionalEventListener(classes = {RecipeSavedEvent.class, RecipeDeletedEvent.class},
+            phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void incrementVersion() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Evicts the recipes from the caches, along with the lists and the ingredients embedding them, as a write
+     * of the recipes does once it commits.
+     */
+    public void evictCached(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        ids.forEach(cacheManager.getCache(CacheConfiguration.RECIPES)::evict);
+        Stream.of(CacheConfiguration.RECIPE_LISTS, CacheConfiguration.INGREDIENTS, CacheConfiguration.INGREDIENT_LISTS)
+                .forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    /**
+     * @return version of the recipes, incremented after every recipe change, once when it commits and again
+     * once the caches are up to date. A representation built from recipes read after getting the version is current
+     * as long as the version is unchanged
+     */
+    public long getVersion() {
+        return version.get();
     }
 
+    /**
+     * Cache misses of concurrent calls share one load.
+     */
     public List<Recipe> findAll() {
-        return repository.findAll();
+        return recipeListFlights.load("all", repository::findAll);
     }
 
+    /**
+     * Returns at most {@code limit} recipes with id greater than {@code after}, ordered by id.
+     * Cache misses of concurrent calls for the same page share one load.
+     * @param after cursor (id of the last recipe of the previous page), {@code null} for the first page
+     * @param limit page size
+     */
+    public List<Recipe> findPage(Long after, int limit) {
+        return recipeListFlights.load(after + ":" + limit,
+                () -> repository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after, PageRequest.of(0, limit)));
+    }
+
+    /**
+     * Passes every recipe, ordered by id, to the consumer. Rows are read through a JDBC cursor
+     * and detached once consumed, so memory stays flat whatever the size of the table.
+     */
+    @Transactional(readOnly = true)
+    public void export(Consumer<Recipe> consumer) {
+        try (Stream<Recipe> recipes = repository.streamAll(applicationProperties.getExport().getFetchSize())) {
+            recipes.forEach(recipe -> {
+                consumer.accept(recipe);
+                repository.detach(recipe);
+            });
+        }
+    }
+
+    /**
+     * Cache misses of concurrent calls for the same id share one load, and the loads of different ids
+     * are loaded together, by one query per batch.
+     */
     public Recipe findById(Long id) {
-        return repository.findById(id).orElse(null);
+        return recipeFlights.load(id, () -> recipeLoader.load(id));
     }
 
+    /**
+     * Finds the recipe with its ingredients in one query. Not cached, since ingredient changes do not evict the recipe caches.
+     */
+    @Transactional(readOnly = true)
+    public Recipe findWithIngredientsById(Long id) {
+        return repository.findWithIngredientsById(id).orElse(null);
+    }
+
+    /**
+     * Finds the recipes with their ingredients in one query, ordered by id. Not cached, like {@link #findWithIngredientsById(Long)}.
+     */
+    @Transactional(readOnly = true)
+    public List<Recipe> findAllWithIngredientsById(Collection<Long> ids) {
+        return repository.findWithIngredientsByIdIn(ids);
+    }
+
+    /**
+     * Returns at most {@code limit} recipes with id greater than {@code after}, ordered by id, with their ingredients.
+     * The page is read with two queries whatever its size: the ids of the page, then the recipes joined to their ingredients.
+     * Not cached, since ingredient changes do not evict the recipe caches.
+     * @param after cursor (id of the last recipe of the previous page), {@code null} for the first page
+     * @param limit page size
+     */
+    @Transactional(readOnly = true)
+    public List<Recipe> findPageWithIngredients(Long after, int limit) {
+        final List<Long> ids = repository.findIdsByIdGreaterThan(after == null ? 0L : after, PageRequest.of(0, limit));
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return repository.findWithIngredientsByIdIn(ids);
+    }
+
+    public List<Recipe> findAllById(Collection<Long> ids) {
+        return repository.findAllById(ids);
+    }
+
+    /**
+     * @return the ids of at most {@code limit} recipes, the ones with the most ingredients first
+     */
+    public List<Long> findMostUsedIds(int limit) {
+        return repository.findIdsOrderByIngredientCountDesc(PageRequest.of(0, limit));
+    }
+
+    /**
+     * @return the recipes having one of the names
+     */
+    public List<Recipe> findByNames(Collection<String> names) {
+        return repository.findByNameIn(names);
+    }
+
+    /**
+     * Saves the recipe. Ingredients embed their recipe, so the cached ingredients are evicted too.
+     */
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.RECIPES, key = "#result.id"),
+            @CacheEvict(cacheNames = {CacheConfiguration.RECIPE_LISTS, CacheConfiguration.INGREDIENTS,
+                    CacheConfiguration.INGREDIENT_LISTS}, allEntries = true)
+    })
+    @Transactional
     public Recipe save(Recipe recipe) {
-        return repository.save(recipe);
+        final boolean created = recipe.getId() == null;
+        final Recipe saved = repository.save(recipe);
+        eventPublisher.publishEvent(new RecipeSavedEvent(saved.getId(), created));
+        return saved;
+    }
+
+    /**
+     * Creates the recipes without id and updates the existing ones with id, in a single transaction.
+     * Existing recipes are loaded with one query and the inserts and updates are sent in JDBC batches.
+     * @return the saved recipes in the same order, {@code null} for the ones whose id does not exist
+     */
+    @Transactional
+    @CacheEvict(cacheNames = {CacheConfiguration.RECIPES, CacheConfiguration.RECIPE_LISTS, CacheConfiguration.INGREDIENTS,
+            CacheConfiguration.INGREDIENT_LISTS}, allEntries = true)
+    public List<Recipe> upsertAll(List<Recipe> recipes) {
+        final Set<Long> ids = recipes.stream()
+                .map(Recipe::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        final Map<Long, Recipe> existing = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+        final List<Recipe> saved = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            if (recipe.getId() == null) {
+                final Recipe created = repository.save(recipe);
+                eventPublisher.publishEvent(new RecipeSavedEvent(created.getId(), true));
+                saved.add(created);
+            } else {
+                final Recipe found = existing.get(recipe.getId());
+                if (found != null) {
+                    found.setName(recipe.getName());
+                    found.setDescription(recipe.getDescription());
+                    eventPublisher.publishEvent(new RecipeSavedEvent(found.getId(), false));
+                }
+                saved.add(found);
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Updates the name and the description of the recipe with a single UPDATE statement,
+     * which checks both that the recipe exists and that it has the expected version.
+     * @param expectedVersion version the recipe must have, {@code null} to update whatever the version
+     * @return the updated recipe with its new version, {@code null} if it does not exist or has another version
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.RECIPES, key = "#recipe.id"),
+            @CacheEvict(cacheNames = {CacheConfiguration.RECIPE_LISTS, CacheConfiguration.INGREDIENTS,
+                    CacheConfiguration.INGREDIENT_LISTS}, allEntries = true)
+    })
+    public Recipe update(Recipe recipe, Long expectedVersion) {
+        if (repository.updateIfVersionMatches(recipe.getId(), recipe.getName(), recipe.getDescription(), expectedVersion) == 0) {
+            return null;
+        }
+        eventPublisher.publishEvent(new RecipeSavedEvent(recipe.getId(), false));
+        if (expectedVersion == null) {
+            return repository.findCurrentById(recipe.getId()).orElse(null);
+        }
+        recipe.setVersion(expectedVersion + 1);
+        return recipe;
+    }
+
+    public boolean exists(Long id) {
+        return repository.existsById(id);
+    }
+
+    /**
+     * Returns a reference to the recipe, to be attached to an ingredient, without reading the recipe.
+     * Its existence is looked up in the in-memory index of the recipe ids, loaded at startup and updated
+     * once every recipe change is committed; ids missing from the index are checked against the database.
+     * A recipe deleted meanwhile is still caught by the foreign key of the ingredient.
+     * @return an uninitialized proxy of the recipe, only its id can be read outside of a transaction;
+     * {@code null} if the recipe does not exist
+     */
+    public Recipe getReference(Long id) {
+        if (!recipeIds.contains(id) && !repository.existsById(id)) {
+            return null;
+        }
+        return repository.getOne(id);
     }
 
-    public void delete(Long id) {
-        repository.deleteById(id);
+    /**
+     * Deletes the recipe with a single DELETE statement, which checks both that the recipe exists
+     * and that it has the expected version.
+     * @param expectedVersion version the recipe must have, {@code null} to delete whatever the version
+     * @return {@code true} if the recipe was deleted, {@code false} if it does not exist or has another version
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfiguration.RECIPES, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfiguration.RECIPE_LISTS, allEntries = true)
+    })
+    public boolean delete(Long id, Long expectedVersion) {
+        if (repository.deleteIfVersionMatches(id, expectedVersion) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new RecipeDeletedEvent(id));
+        return true;
     }
 
 }
@@ -0,0 +1,145 @@
+package com.test.restaurant.service.batch;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Collects the keys looked up concurrently into batches, each one loaded with a single call of the batch function,
+ * in the spirit of DataLoader. The first key of a batch opens a window; the batch is loaded when the window closes,
+ * or as soon as it holds {@code maxBatchSize} keys. Callers looking up a key of the pending batch share its value.
+ * A key looked up while no other load is in flight is loaded at once, without waiting for others: the window is only
+ * paid under concurrency.
+ * <p>
+ * A batch is loaded on the thread of the caller that opened it, or of the one that filled it, so no thread is handed
+ * over and its statements are accounted to that request. Batches of a single key are loaded with the single key
+ * function. Lookups done inside a transaction are loaded on their own, so that they see its uncommitted changes.
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BatchLoader<K, V> {
+    private final Function<K, V> loadFunction;
+    private final Function<Collection<K>, Map<K, V>> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+
+    private final Object lock = new Object();
+    private Batch<K, V> pending;
+    /**
+     * Callers in {@link #load}, guarded by the lock.
+     */
+    private int loading;
+
+    /**
+     * @param loadFunction loads the value of a single key, {@code null} if it has none
+     * @param batchFunction loads the values of the keys, keys without value being absent from the returned map
+     * @param window time during which the keys of a batch are collected, zero to load every key on its own
+     * @param batchSizes distribution the number of keys of every loaded batch is recorded to
+     */
+    public BatchLoader(Function<K, V> loadFunction, Function<Collection<K>, Map<K, V>> batchFunction, Duration window,
+                       int maxBatchSize, DistributionSummary batchSizes) {
+        this.loadFunction = loadFunction;
+        this.batchFunction = batchFunction;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = batchSizes;
+    }
+
+    /**
+     * Waits for the batch of the key to be loaded.
+     * @return the value of the key, {@code null} if it has none
+     */
+    public V load(K key) {
+        if (windowNanos == 0 || TransactionSynchronizationManager.isActualTransactionActive()) {
+            batchSizes.record(1);
+            return loadFunction.apply(key);
+        }
+        final Batch<K, V> batch;
+        final CompletableFuture<V> value;
+        final boolean opened;
+        final boolean alone;
+        boolean dispatchNow = false;
+        synchronized (lock) {
+            loading++;
+            opened = pending == null;
+            alone = opened && loading == 1;
+            if (opened) {
+                pending = new Batch<>();
+            }
+            batch = pending;
+            value = batch.values.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (alone || batch.values.size() >= maxBatchSize) {
+                pending = null;
+                dispatchNow = true;
+            }
+        }
+        try {
+            if (dispatchNow) {
+                batch.closed.complete(null);
+                dispatch(batch);
+            } else if (opened) {
+                awaitWindow(batch);
+            }
+            return value.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        } finally {
+            synchronized (lock) {
+                loading--;
+            }
+        }
+    }
+
+    /**
+     * Waits for the window of the batch to close and dispatches it, unless it was filled in between.
+     */
+    private void awaitWindow(Batch<K, V> batch) {
+        try {
+            batch.closed.get(windowNanos, TimeUnit.NANOSECONDS);
+            return;
+        } catch (TimeoutException e) {
+            // window closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+        synchronized (lock) {
+            if (pending != batch) {
+                return;
+            }
+            pending = null;
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        batchSizes.record(batch.values.size());
+        try {
+            if (batch.values.size() == 1) {
+                batch.values.forEach((key, value) -> value.complete(loadFunction.apply(key)));
+            } else {
+                final Map<K, V> values = batchFunction.apply(batch.values.keySet());
+                batch.values.forEach((key, value) -> value.complete(values.get(key)));
+            }
+        } catch (RuntimeException e) {
+            batch.values.values().forEach(value -> value.completeExceptionally(e));
+        }
+    }
+
+    private static final class Batch<K, V> {
+        private final Map<K, CompletableFuture<V>> values = new HashMap<>();
+        private final CompletableFuture<Void> closed = new CompletableFuture<>();
+    }
+}
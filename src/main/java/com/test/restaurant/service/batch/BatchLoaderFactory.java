@@ -0,0 +1,42 @@
+package com.test.restaurant.service.batch;
+
+import com.test.restaurant.config.ApplicationProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Creates the {@link BatchLoader}s of the services, configured under {@code restaurant.batch-loader}.
+ * The size of the loaded batches is published as the {@code batch.loader.size}
+ * distribution summary, tagged with the name of the loader.
+ */
+@Component
+public class BatchLoaderFactory {
+    public static final String METRIC_NAME = "batch.loader.size";
+
+    private final ApplicationProperties.BatchLoader properties;
+    private final MeterRegistry meterRegistry;
+
+    public BatchLoaderFactory(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.properties = applicationProperties.getBatchLoader();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param name name of the loader, tag of its metric
+     * @param loadFunction loads the value of a single key, {@code null} if it has none
+     * @param batchFunction loads the values of the keys, keys without value being absent from the returned map
+     */
+    public <K, V> BatchLoader<K, V> create(String name, Function<K, V> loadFunction,
+                                          Function<Collection<K>, Map<K, V>> batchFunction) {
+        final DistributionSummary batchSizes = DistributionSummary.builder(METRIC_NAME)
+                .description("Keys loaded per batch")
+                .tag("loader", name)
+                .register(meterRegistry);
+        return new BatchLoader<>(loadFunction, batchFunction, properties.getWindow(), properties.getMaxBatchSize(), batchSizes);
+    }
+}
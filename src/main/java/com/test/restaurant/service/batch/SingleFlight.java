@@ -0,0 +1,119 @@
+package com.test.restaurant.service.batch;
+
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache whose misses of the same key are coalesced: the first caller runs the load on its own thread
+ * and publishes it as an in-flight future, the callers arriving before it completes wait for that future instead
+ * of loading again. The future is removed once completed, so the next miss loads afresh.
+ * <p>
+ * Every load is tagged with the version of the data when it starts. A load started before a change of the data
+ * may return the data as it was before, so it is neither joined by the callers arriving after the change nor cached.
+ * <p>
+ * Loads done inside a transaction are not shared, so that they see its uncommitted changes.
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final Cache cache;
+    private final LongSupplier version;
+
+    /**
+     * @param cache cache of the loaded values, evicted by the changes of the data
+     * @param version version of the data, which must be incremented by every change of the data once it is visible
+     * to the loads, and before the cache is evicted
+     */
+    public SingleFlight(Cache cache, LongSupplier version) {
+        this.cache = cache;
+        this.version = version;
+    }
+
+    /**
+     * @param loader loads the value of the key if it is not cached and no current load of the key is in flight
+     * @return the cached value, or the value loaded by this caller or by the in-flight load
+     */
+    @SuppressWarnings("unchecked")
+    public V load(K key, Supplier<V> loader) {
+        final Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (V) cached.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // put once the transaction commits
+            final V value = loader.get();
+            cache.put(key, value);
+            return value;
+        }
+        final Flight<V> flight = new Flight<>(version.getAsLong());
+        Flight<V> existing;
+        while ((existing = inFlight.putIfAbsent(key, flight)) != null) {
+            if (existing.version >= flight.version) {
+                return join(existing.value);
+            }
+            if (inFlight.replace(key, existing, flight)) {
+                break;
+            }
+        }
+        try {
+            final V value = loader.get();
+            flight.value.complete(value);
+            store(key, value, flight.version);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.value.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> value) {
+        try {
+            return value.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Caches the value if the data is still at the version it was loaded at. A change may be made between the check
+     * and the put, so the version is checked again once the value is cached.
+     */
+    private void store(K key, V value, long loadedVersion) {
+        if (version.getAsLong() != loadedVersion) {
+            return;
+        }
+        cache.put(key, value);
+        if (version.getAsLong() != loadedVersion) {
+            cache.evict(key);
+        }
+    }
+
+    /**
+     * @return number of loads in flight
+     */
+    public int size() {
+        return inFlight.size();
+    }
+
+    /**
+     * Load in flight, with the version of the data when it started.
+     */
+    private static final class Flight<V> {
+        private final long version;
+        private final CompletableFuture<V> value = new CompletableFuture<>();
+
+        Flight(long version) {
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.test.restaurant.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result of one item of a batch request: the HTTP status of the item,
+ * with the saved item on success or the error otherwise.
+ * @param <T> DTO type of the item
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResultDTO<T> {
+    private int status;
+
+    private T item;
+
+    private String error;
+
+    public BatchItemResultDTO() {
+    }
+
+    public BatchItemResultDTO(int status, T item, String error) {
+        this.status = status;
+        this.item = item;
+        this.error = error;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public T getItem() {
+        return item;
+    }
+
+    public void setItem(T item) {
+        this.item = item;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -1,5 +1,7 @@
 package com.test.restaurant.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Size;
@@ -11,8 +13,12 @@ public class IngredientDTO {
     @Size(min = 1, max = 40)
     private String name;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private RecipeDTO recipe;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long recipeId;
+
 
     public IngredientDTO() {
     }
@@ -26,6 +32,14 @@ public class IngredientDTO {
         this.recipe = recipe;
     }
 
+    public Long getRecipeId() {
+        return recipeId;
+    }
+
+    public void setRecipeId(Long recipeId) {
+        this.recipeId = recipeId;
+    }
+
     public Long getId() {
         return id;
     }
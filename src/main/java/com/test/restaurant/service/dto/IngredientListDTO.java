@@ -0,0 +1,37 @@
+package com.test.restaurant.service.dto;
+
+import java.util.List;
+
+/**
+ * Normalized list of ingredients: each recipe is sent once in {@code recipes},
+ * and the ingredients reference it by their {@code recipeId} only.
+ */
+public class IngredientListDTO {
+    private List<RecipeDTO> recipes;
+
+    private List<IngredientDTO> ingredients;
+
+    public IngredientListDTO() {
+    }
+
+    public IngredientListDTO(List<RecipeDTO> recipes, List<IngredientDTO> ingredients) {
+        this.recipes = recipes;
+        this.ingredients = ingredients;
+    }
+
+    public List<RecipeDTO> getRecipes() {
+        return recipes;
+    }
+
+    public void setRecipes(List<RecipeDTO> recipes) {
+        this.recipes = recipes;
+    }
+
+    public List<IngredientDTO> getIngredients() {
+        return ingredients;
+    }
+
+    public void setIngredients(List<IngredientDTO> ingredients) {
+        this.ingredients = ingredients;
+    }
+}
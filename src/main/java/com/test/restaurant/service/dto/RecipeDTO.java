@@ -1,8 +1,11 @@
 package com.test.restaurant.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Size;
+import java.util.List;
 
 public class RecipeDTO {
     private Long id;
@@ -15,6 +18,12 @@ public class RecipeDTO {
     @Size(min = 1, max = 40)
     private String description;
 
+    /**
+     * Only filled when the ingredients are expanded, each one with its {@code recipeId} only.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<IngredientDTO> ingredients;
+
     public Long getId() {
         return id;
     }
@@ -38,4 +47,12 @@ public class RecipeDTO {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    public List<IngredientDTO> getIngredients() {
+        return ingredients;
+    }
+
+    public void setIngredients(List<IngredientDTO> ingredients) {
+        this.ingredients = ingredients;
+    }
 }
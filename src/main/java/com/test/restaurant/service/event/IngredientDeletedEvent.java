@@ -0,0 +1,16 @@
+package com.test.restaurant.service.event;
+
+/**
+ * Published by {@link com.test.restaurant.service.IngredientService} when an ingredient is deleted.
+ */
+public class IngredientDeletedEvent {
+    private final Long id;
+
+    public IngredientDeletedEvent(Long id) {
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,39 @@
+package com.test.restaurant.service.event;
+
+import com.test.restaurant.entity.Ingredient;
+
+/**
+ * Published by {@link com.test.restaurant.service.IngredientService} when an ingredient is created or updated.
+ */
+public class IngredientSavedEvent {
+    private final Long id;
+    private final String name;
+    private final Long recipeId;
+    private final boolean created;
+
+    public IngredientSavedEvent(Ingredient ingredient, boolean created) {
+        this.id = ingredient.getId();
+        this.name = ingredient.getName();
+        this.recipeId = ingredient.getRecipe().getId();
+        this.created = created;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Long getRecipeId() {
+        return recipeId;
+    }
+
+    /**
+     * @return {@code true} if the ingredient was created, {@code false} if it was updated
+     */
+    public boolean isCreated() {
+        return created;
+    }
+}
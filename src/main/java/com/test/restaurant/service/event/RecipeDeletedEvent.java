@@ -0,0 +1,16 @@
+package com.test.restaurant.service.event;
+
+/**
+ * Published by {@link com.test.restaurant.service.RecipeService} when a recipe is deleted.
+ */
+public class RecipeDeletedEvent {
+    private final Long id;
+
+    public RecipeDeletedEvent(Long id) {
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,25 @@
+package com.test.restaurant.service.event;
+
+/**
+ * Published by {@link com.test.restaurant.service.RecipeService} when a recipe is created or updated.
+ */
+public class RecipeSavedEvent {
+    private final Long id;
+    private final boolean created;
+
+    public RecipeSavedEvent(Long id, boolean created) {
+        this.id = id;
+        this.created = created;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return {@code true} if the recipe was created, {@code false} if it was updated
+     */
+    public boolean isCreated() {
+        return created;
+    }
+}
@@ -0,0 +1,48 @@
+package com.test.restaurant.service.feed;
+
+/**
+ * Committed change of a recipe or an ingredient, numbered by the {@link com.test.restaurant.service.ChangeFeedService}.
+ */
+public class Change {
+    public enum Entity {
+        RECIPE, INGREDIENT
+    }
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final long sequence;
+    private final Entity entity;
+    private final Type type;
+    private final Long id;
+
+    public Change(long sequence, Entity entity, Type type, Long id) {
+        this.sequence = sequence;
+        this.entity = entity;
+        this.type = type;
+        this.id = id;
+    }
+
+    /**
+     * @return number of the change, greater than the ones of all the changes committed before
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return id of the changed recipe or ingredient
+     */
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,174 @@
+package com.test.restaurant.service.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from ingredient names to the recipes using them, as a prefix trie over the lower-cased names.
+ * Every node counts, per recipe, the ingredients whose name starts with the node prefix, so a lookup only walks
+ * the prefix and ingredients can be added and removed one at a time.
+ * Lookups share a read lock, changes take the write lock.
+ */
+public class IngredientNameIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    /**
+     * Indexes the ingredient, replacing its previous name and recipe if it was already indexed.
+     */
+    public void put(Long ingredientId, String name, Long recipeId) {
+        final Entry entry = new Entry(normalize(name), recipeId);
+        lock.writeLock().lock();
+        try {
+            final Entry previous = entries.put(ingredientId, entry);
+            if (entry.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                unlink(previous);
+            }
+            link(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long ingredientId) {
+        lock.writeLock().lock();
+        try {
+            final Entry previous = entries.remove(ingredientId);
+            if (previous != null) {
+                unlink(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            root.children.clear();
+            root.recipeIds.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of indexed ingredients
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns, in ascending order, the ids of the recipes having an ingredient whose name starts with the prefix,
+     * ignoring case.
+     * @param after only ids greater than this one are returned, {@code null} for all
+     * @param limit maximum number of ids
+     */
+    public List<Long> findRecipeIds(String prefix, Long after, int limit) {
+        final String normalized = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < normalized.length() && node != null; i++) {
+                node = node.children.get(normalized.charAt(i));
+            }
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            final NavigableMap<Long, Integer> recipeIds = after == null ? node.recipeIds : node.recipeIds.tailMap(after, false);
+            final List<Long> found = new ArrayList<>(Math.min(limit, recipeIds.size()));
+            for (Long recipeId : recipeIds.keySet()) {
+                if (found.size() == limit) {
+                    break;
+                }
+                found.add(recipeId);
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void link(Entry entry) {
+        Node node = root;
+        node.recipeIds.merge(entry.recipeId, 1, Integer::sum);
+        for (int i = 0; i < entry.name.length(); i++) {
+            node = node.children.computeIfAbsent(entry.name.charAt(i), c -> new Node());
+            node.recipeIds.merge(entry.recipeId, 1, Integer::sum);
+        }
+    }
+
+    private void unlink(Entry entry) {
+        Node node = root;
+        decrement(node, entry.recipeId);
+        for (int i = 0; i < entry.name.length(); i++) {
+            final Node child = node.children.get(entry.name.charAt(i));
+            decrement(child, entry.recipeId);
+            if (child.recipeIds.isEmpty()) {
+                // no ingredient left below this prefix
+                node.children.remove(entry.name.charAt(i));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    private static void decrement(Node node, Long recipeId) {
+        node.recipeIds.computeIfPresent(recipeId, (id, count) -> count == 1 ? null : count - 1);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final TreeMap<Long, Integer> recipeIds = new TreeMap<>();
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final Long recipeId;
+
+        private Entry(String name, Long recipeId) {
+            this.name = name;
+            this.recipeId = recipeId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            final Entry entry = (Entry) o;
+            return name.equals(entry.name) && recipeId.equals(entry.recipeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + recipeId.hashCode();
+        }
+    }
+}
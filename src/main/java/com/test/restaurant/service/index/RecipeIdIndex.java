@@ -0,0 +1,79 @@
+package com.test.restaurant.service.index;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Set of the existing recipe ids, as a bitset indexed by id: ids come from a sequence, so the set stays dense
+ * and takes one bit per id ever generated. Ids beyond {@link Integer#MAX_VALUE} are never indexed.
+ * Lookups share a read lock, changes take the write lock.
+ */
+public class RecipeIdIndex {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BitSet ids = new BitSet();
+
+    public void add(Long id) {
+        if (!isIndexable(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ids.set(id.intValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        if (!isIndexable(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ids.clear(id.intValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ids.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return whether the id is indexed, {@code false} for the ids that cannot be indexed
+     */
+    public boolean contains(Long id) {
+        if (!isIndexable(id)) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return ids.get(id.intValue());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of indexed ids
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isIndexable(Long id) {
+        return id != null && id >= 0 && id <= Integer.MAX_VALUE;
+    }
+}
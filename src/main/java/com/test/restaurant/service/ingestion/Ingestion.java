@@ -0,0 +1,74 @@
+package com.test.restaurant.service.ingestion;
+
+import com.test.restaurant.entity.Ingredient;
+
+import java.util.UUID;
+
+/**
+ * An ingredient creation accepted by the ingestion queue, and the outcome of its write once done.
+ */
+public class Ingestion {
+    public enum Status {
+        /**
+         * Queued, not written yet.
+         */
+        PENDING,
+        /**
+         * Written, the ingredient is the created one.
+         */
+        CREATED,
+        /**
+         * Not written, an ingredient with the same name already exists.
+         */
+        CONFLICT,
+        /**
+         * Not written, the recipe of the ingredient no longer exists.
+         */
+        INVALID,
+        /**
+         * Not written because of an unexpected error.
+         */
+        FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+
+    private volatile Ingredient ingredient;
+
+    private volatile Status status = Status.PENDING;
+
+    private volatile String error;
+
+    public Ingestion(Ingredient ingredient) {
+        this.ingredient = ingredient;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return the ingredient to create, or the created ingredient once {@link Status#CREATED}
+     */
+    public Ingredient getIngredient() {
+        return ingredient;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void created(Ingredient ingredient) {
+        this.ingredient = ingredient;
+        this.status = Status.CREATED;
+    }
+
+    public void failed(Status status, String error) {
+        this.error = error;
+        this.status = status;
+    }
+}
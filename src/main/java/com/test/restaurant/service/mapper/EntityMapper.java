@@ -0,0 +1,24 @@
+package com.test.restaurant.service.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contract for a mapper between an entity and its DTO.
+ * @param <E> entity type
+ * @param <D> DTO type
+ */
+public interface EntityMapper<E, D> {
+
+    D toDto(E entity);
+
+    E toEntity(D dto);
+
+    default List<D> toDto(List<E> entities) {
+        final List<D> dtos = new ArrayList<>(entities.size());
+        for (E entity : entities) {
+            dtos.add(toDto(entity));
+        }
+        return dtos;
+    }
+}
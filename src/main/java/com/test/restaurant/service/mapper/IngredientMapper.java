@@ -0,0 +1,21 @@
+package com.test.restaurant.service.mapper;
+
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.service.dto.IngredientDTO;
+
+/**
+ * Mapper between {@link Ingredient} and {@link IngredientDTO}.
+ * The recipe of the ingredient is never mapped to the entity, it has to be resolved by id.
+ */
+public interface IngredientMapper extends EntityMapper<Ingredient, IngredientDTO> {
+
+    /**
+     * @param embedRecipe whether to embed the recipe or to fill only {@code recipeId}
+     */
+    IngredientDTO toDto(Ingredient ingredient, boolean embedRecipe);
+
+    @Override
+    default IngredientDTO toDto(Ingredient ingredient) {
+        return toDto(ingredient, true);
+    }
+}
@@ -0,0 +1,46 @@
+package com.test.restaurant.service.mapper;
+
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.dto.IngredientDTO;
+
+/**
+ * Hand-written {@link IngredientMapper}: plain getter/setter calls, no reflection.
+ * When the recipe is not embedded only its id is read, so a lazy recipe proxy is never initialized.
+ */
+public class IngredientMapperImpl implements IngredientMapper {
+    private final RecipeMapper recipeMapper;
+
+    public IngredientMapperImpl(RecipeMapper recipeMapper) {
+        this.recipeMapper = recipeMapper;
+    }
+
+    @Override
+    public IngredientDTO toDto(Ingredient ingredient, boolean embedRecipe) {
+        if (ingredient == null) {
+            return null;
+        }
+        final IngredientDTO ingredientDTO = new IngredientDTO();
+        ingredientDTO.setId(ingredient.getId());
+        ingredientDTO.setName(ingredient.getName());
+        final Recipe recipe = ingredient.getRecipe();
+        if (recipe != null) {
+            ingredientDTO.setRecipeId(recipe.getId());
+            if (embedRecipe) {
+                ingredientDTO.setRecipe(recipeMapper.toDto(recipe));
+            }
+        }
+        return ingredientDTO;
+    }
+
+    @Override
+    public Ingredient toEntity(IngredientDTO ingredientDTO) {
+        if (ingredientDTO == null) {
+            return null;
+        }
+        final Ingredient ingredient = new Ingredient();
+        ingredient.setId(ingredientDTO.getId());
+        ingredient.setName(ingredientDTO.getName());
+        return ingredient;
+    }
+}
@@ -1,13 +1,64 @@
 package com.test.restaurant.service.mapper;
 
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.dto.IngredientDTO;
+import com.test.restaurant.service.dto.RecipeDTO;
 import org.modelmapper.ModelMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+/**
+ * Mapper configuration. The hand-written mappers are used by default,
+ * {@code restaurant.mapper=modelmapper} switches back to the reflective {@link ModelMapper}.
+ */
 @Configuration
 public class Mapper {
+    public static final String IMPLEMENTATION_PROPERTY = "restaurant.mapper";
+
     @Bean
     public ModelMapper modelMapper() {
-        return new ModelMapper();
+        final ModelMapper modelMapper = new ModelMapper();
+        // The recipe of an ingredient is resolved by id from either recipe.id or recipeId, never mapped
+        modelMapper.emptyTypeMap(IngredientDTO.class, Ingredient.class)
+                .addMappings(mapper -> mapper.skip(Ingredient::setRecipe))
+                .implicitMappings();
+        // The ingredients of a recipe are only mapped when expanded, so that the lazy collection is never loaded by accident
+        modelMapper.emptyTypeMap(Recipe.class, RecipeDTO.class)
+                .addMappings(mapper -> mapper.skip(RecipeDTO::setIngredients))
+                .implicitMappings();
+        modelMapper.emptyTypeMap(RecipeDTO.class, Recipe.class)
+                .addMappings(mapper -> mapper.skip(Recipe::setIngredients))
+                .implicitMappings();
+        return modelMapper;
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = IMPLEMENTATION_PROPERTY, havingValue = "direct", matchIfMissing = true)
+    static class DirectMapperConfiguration {
+        @Bean
+        public RecipeMapper recipeMapper() {
+            return new RecipeMapperImpl();
+        }
+
+        @Bean
+        public IngredientMapper ingredientMapper(RecipeMapper recipeMapper) {
+            return new IngredientMapperImpl(recipeMapper);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = IMPLEMENTATION_PROPERTY, havingValue = "modelmapper")
+    static class ModelMapperConfiguration {
+        @Bean
+        public RecipeMapper recipeMapper(ModelMapper modelMapper) {
+            return new ModelMapperRecipeMapper(modelMapper);
+        }
+
+        @Bean
+        public IngredientMapper ingredientMapper(ModelMapper modelMapper) {
+            return new ModelMapperIngredientMapper(modelMapper);
+        }
     }
 }
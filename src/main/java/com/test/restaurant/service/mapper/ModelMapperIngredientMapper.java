@@ -0,0 +1,30 @@
+package com.test.restaurant.service.mapper;
+
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.service.dto.IngredientDTO;
+import org.modelmapper.ModelMapper;
+
+/**
+ * {@link IngredientMapper} backed by the reflective {@link ModelMapper}.
+ */
+public class ModelMapperIngredientMapper implements IngredientMapper {
+    private final ModelMapper modelMapper;
+
+    public ModelMapperIngredientMapper(ModelMapper modelMapper) {
+        this.modelMapper = modelMapper;
+    }
+
+    @Override
+    public IngredientDTO toDto(Ingredient ingredient, boolean embedRecipe) {
+        final IngredientDTO ingredientDTO = modelMapper.map(ingredient, IngredientDTO.class);
+        if (!embedRecipe) {
+            ingredientDTO.setRecipe(null);
+        }
+        return ingredientDTO;
+    }
+
+    @Override
+    public Ingredient toEntity(IngredientDTO ingredientDTO) {
+        return modelMapper.map(ingredientDTO, Ingredient.class);
+    }
+}
@@ -0,0 +1,26 @@
+package com.test.restaurant.service.mapper;
+
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.dto.RecipeDTO;
+import org.modelmapper.ModelMapper;
+
+/**
+ * {@link RecipeMapper} backed by the reflective {@link ModelMapper}.
+ */
+public class ModelMapperRecipeMapper implements RecipeMapper {
+    private final ModelMapper modelMapper;
+
+    public ModelMapperRecipeMapper(ModelMapper modelMapper) {
+        this.modelMapper = modelMapper;
+    }
+
+    @Override
+    public RecipeDTO toDto(Recipe recipe) {
+        return modelMapper.map(recipe, RecipeDTO.class);
+    }
+
+    @Override
+    public Recipe toEntity(RecipeDTO recipeDTO) {
+        return modelMapper.map(recipeDTO, Recipe.class);
+    }
+}
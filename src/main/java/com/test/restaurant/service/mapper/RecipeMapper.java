@@ -0,0 +1,10 @@
+package com.test.restaurant.service.mapper;
+
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.dto.RecipeDTO;
+
+/**
+ * Mapper between {@link Recipe} and {@link RecipeDTO}.
+ */
+public interface RecipeMapper extends EntityMapper<Recipe, RecipeDTO> {
+}
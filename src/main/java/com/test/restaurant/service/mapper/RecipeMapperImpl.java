@@ -0,0 +1,34 @@
+package com.test.restaurant.service.mapper;
+
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.dto.RecipeDTO;
+
+/**
+ * Hand-written {@link RecipeMapper}: plain getter/setter calls, no reflection.
+ */
+public class RecipeMapperImpl implements RecipeMapper {
+
+    @Override
+    public RecipeDTO toDto(Recipe recipe) {
+        if (recipe == null) {
+            return null;
+        }
+        final RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setId(recipe.getId());
+        recipeDTO.setName(recipe.getName());
+        recipeDTO.setDescription(recipe.getDescription());
+        return recipeDTO;
+    }
+
+    @Override
+    public Recipe toEntity(RecipeDTO recipeDTO) {
+        if (recipeDTO == null) {
+            return null;
+        }
+        final Recipe recipe = new Recipe();
+        recipe.setId(recipeDTO.getId());
+        recipe.setName(recipeDTO.getName());
+        recipe.setDescription(recipeDTO.getDescription());
+        return recipe;
+    }
+}
@@ -1,9 +1,9 @@
-INSERT INTO recipes (name, description) VALUES
-  ('Sauce', 'Sauce Description'),
-  ('Steak', 'Steak Description'),
-  ('Pizza', 'Pizza Description');
+INSERT INTO recipes (id, name, description) VALUES
+  (1, 'Sauce', 'Sauce Description'),
+  (2, 'Steak', 'Steak Description'),
+  (3, 'Pizza', 'Pizza Description');
 
-INSERT INTO ingredients (name, recipe_id) VALUES
-  ('Tomato', 1),
-  ('Meet', 2),
-  ('Cheese', 3);
\ No newline at end of file
+INSERT INTO ingredients (id, name, recipe_id) VALUES
+  (1, 'Tomato', 1),
+  (2, 'Meet', 2),
+  (3, 'Cheese', 3);
\ No newline at end of file
@@ -0,0 +1,18 @@
+CREATE SEQUENCE recipes_seq START WITH 100 INCREMENT BY 50;
+
+CREATE TABLE recipes (
+  id BIGINT PRIMARY KEY,
+  name VARCHAR(40) NOT NULL UNIQUE,
+  description VARCHAR(100) NOT NULL,
+  version BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE SEQUENCE ingredients_seq START WITH 100 INCREMENT BY 50;
+
+CREATE TABLE ingredients (
+  id BIGINT PRIMARY KEY,
+  name VARCHAR(40) NOT NULL UNIQUE,
+  recipe_id BIGINT NOT NULL,
+  version BIGINT DEFAULT 0 NOT NULL,
+  FOREIGN KEY (recipe_id) REFERENCES recipes(id)
+);
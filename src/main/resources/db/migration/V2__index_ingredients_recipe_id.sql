@@ -0,0 +1,3 @@
+-- ingredients of a recipe (expand=ingredients, recipe deletion checks), ordered by id.
+-- Names are looked up through the indexes of their UNIQUE constraints.
+CREATE INDEX ingredients_recipe_id_idx ON ingredients (recipe_id, id);
@@ -1,12 +1,20 @@
+CREATE SEQUENCE recipes_seq START WITH 100 INCREMENT BY 50;
+
 CREATE TABLE recipes (
-  id INT AUTO_INCREMENT  PRIMARY KEY,
+  id BIGINT PRIMARY KEY,
   name VARCHAR(40) NOT NULL UNIQUE,
-  description VARCHAR(100) NOT NULL
+  description VARCHAR(100) NOT NULL,
+  version BIGINT DEFAULT 0 NOT NULL
 );
 
+CREATE SEQUENCE ingredients_seq START WITH 100 INCREMENT BY 50;
+
 CREATE TABLE ingredients (
-  id INT AUTO_INCREMENT  PRIMARY KEY,
+  id BIGINT PRIMARY KEY,
   name VARCHAR(40) NOT NULL UNIQUE,
-  recipe_id INT NOT NULL,
+  recipe_id BIGINT NOT NULL,
+  version BIGINT DEFAULT 0 NOT NULL,
   FOREIGN KEY (recipe_id) REFERENCES recipes(id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX ingredients_recipe_id_idx ON ingredients (recipe_id, id);
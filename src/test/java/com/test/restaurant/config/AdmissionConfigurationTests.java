@@ -0,0 +1,93 @@
+package com.test.restaurant.config;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.config.admission.AdaptiveLimiter;
+import com.test.restaurant.config.admission.AdmissionInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = RestaurantApplication.class, properties = "restaurant.admission.initial-limit=4")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles(profiles = "test")
+public class AdmissionConfigurationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionInterceptor admissionInterceptor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void readsBeyondLimitAreRejected() throws Exception {
+        final AdaptiveLimiter limiter = admissionInterceptor.getLimiter("GET /recipes/{id}");
+        final int acquired = acquireAll(limiter);
+        try {
+            mockMvc.perform(get("/recipes/{id}", Long.MAX_VALUE))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+
+            // the other endpoints have their own bulkheads
+            mockMvc.perform(get("/recipes"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(post("/recipes").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                    .andExpect(status().isBadRequest());
+        } finally {
+            releaseAll(limiter, acquired);
+        }
+
+        mockMvc.perform(get("/recipes/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+        assertThat(meterRegistry.get(AdmissionInterceptor.REJECTED_METRIC).tag("bulkhead", "GET /recipes/{id}").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(AdmissionInterceptor.LIMIT_METRIC).tag("bulkhead", "GET /recipes/{id}").gauge().value())
+                .isGreaterThanOrEqualTo(4);
+    }
+
+    @Test
+    public void writesBeyondLimitAreRejected() throws Exception {
+        final AdaptiveLimiter limiter = admissionInterceptor.getLimiter("POST /ingredients");
+        final int acquired = acquireAll(limiter);
+        try {
+            mockMvc.perform(post("/ingredients").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        } finally {
+            releaseAll(limiter, acquired);
+        }
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    private static int acquireAll(AdaptiveLimiter limiter) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    private static void releaseAll(AdaptiveLimiter limiter, int acquired) {
+        for (int i = 0; i < acquired; i++) {
+            limiter.release();
+        }
+    }
+}
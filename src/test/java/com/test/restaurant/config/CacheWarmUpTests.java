@@ -0,0 +1,90 @@
+package com.test.restaurant.config;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.repository.IngredientRepository;
+import com.test.restaurant.repository.RecipeRepository;
+import com.test.restaurant.service.RecipeService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = RestaurantApplication.class, properties = "restaurant.warm-up.recipes=2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles(profiles = "test")
+public class CacheWarmUpTests {
+
+    @Autowired
+    private CacheWarmUp cacheWarmUp;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Recipe> recipes = new ArrayList<>();
+
+    @BeforeAll
+    public void initTest() {
+        // recipe i has i ingredients
+        for (int i = 0; i < 3; i++) {
+            final Recipe recipe = new Recipe();
+            recipe.setName("Recipe" + i);
+            recipe.setDescription("Descr");
+            recipes.add(recipeRepository.save(recipe));
+            for (int j = 0; j < i; j++) {
+                final Ingredient ingredient = new Ingredient();
+                ingredient.setName("Ingredient" + i + j);
+                ingredient.setRecipe(recipe);
+                ingredientRepository.save(ingredient);
+            }
+        }
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        ingredientRepository.deleteAll();
+        recipeRepository.deleteAll();
+    }
+
+    @Test
+    public void mostUsedRecipesAreServedFromCacheAfterWarmUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        cacheWarmUp.warmUp();
+
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(recipeService.findById(recipes.get(2).getId()).getName()).isEqualTo("Recipe2");
+        assertThat(recipeService.findById(recipes.get(1).getId()).getName()).isEqualTo("Recipe1");
+        assertThat(recipeService.findPage(null, 100)).hasSize(3);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(cacheManager.getCache(CacheConfiguration.RECIPES).get(recipes.get(0).getId())).isNull();
+    }
+}
@@ -0,0 +1,143 @@
+package com.test.restaurant.config;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.config.datasource.H2Cluster;
+import com.test.restaurant.config.datasource.ReadWriteRoutingDataSource;
+import com.test.restaurant.config.datasource.ReadYourWritesFilter;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.repository.RecipeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = RestaurantApplication.class, properties = {
+        "restaurant.replica.enabled=true",
+        "restaurant.replica.local-h2-cluster=true",
+        "restaurant.replica.max-lag=1h"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles(profiles = "test")
+@AutoConfigureMockMvc
+public class DataSourceConfigurationTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private H2Cluster h2Cluster;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterAll
+    public void cleanUp() {
+        recipeRepository.deleteAll();
+    }
+
+    @Test
+    public void readOnlyTransactionsAreRoutedToReplica() {
+        // without the settings of the url
+        assertThat(connectionUrl(true)).isEqualTo(h2Cluster.getReplicaUrl().split(";")[0]);
+        assertThat(connectionUrl(false)).isEqualTo(h2Cluster.getUrl());
+    }
+
+    @Test
+    public void writesAreReadFromReplica() {
+        final Recipe recipe = new Recipe();
+        recipe.setName("replicated");
+        recipe.setDescription("replicated");
+        recipeRepository.save(recipe);
+        final double replicaUsages = replicaUsages();
+
+        assertThat(recipeRepository.findByNameIn(Collections.singleton("replicated")))
+                .extracting(Recipe::getName).containsExactly("replicated");
+
+        assertThat(replicaUsages()).isEqualTo(replicaUsages + 1);
+    }
+
+    @Test
+    public void clientReadsItsWritesFromPrimary() throws Exception {
+        final Cookie lastWrite = mockMvc.perform(post("/recipes")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"own write\",\"description\":\"own write\"}"))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWritesFilter.LAST_WRITE_COOKIE))
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.LAST_WRITE_COOKIE);
+        final Long id = recipeRepository.findByNameIn(Collections.singleton("own write")).get(0).getId();
+
+        clearCaches();
+        final double primaryUsages = usages(ReadWriteRoutingDataSource.PRIMARY);
+        mockMvc.perform(get("/recipes/{id}", id).cookie(lastWrite))
+                .andExpect(status().isOk());
+        assertThat(usages(ReadWriteRoutingDataSource.PRIMARY)).isGreaterThan(primaryUsages);
+
+        // another client still reads from the replica
+        clearCaches();
+        final double replicaUsages = replicaUsages();
+        mockMvc.perform(get("/recipes/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(cookie().doesNotExist(ReadYourWritesFilter.LAST_WRITE_COOKIE));
+        assertThat(replicaUsages()).isGreaterThan(replicaUsages);
+    }
+
+    private void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    private String connectionUrl(boolean readOnly) {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> new JdbcTemplate(dataSource)
+                .execute((ConnectionCallback<String>) connection -> connection.getMetaData().getURL()));
+    }
+
+    private double replicaUsages() {
+        return usages(ReadWriteRoutingDataSource.REPLICA + 0);
+    }
+
+    private double usages(String pool) {
+        return meterRegistry.find("hikaricp.connections.usage").tag("pool", pool)
+                .timers().stream().mapToDouble(timer -> timer.count()).sum();
+    }
+}
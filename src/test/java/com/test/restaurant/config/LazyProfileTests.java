@@ -0,0 +1,34 @@
+package com.test.restaurant.config;
+
+import com.test.restaurant.RestaurantApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = RestaurantApplication.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles(profiles = {"test", "lazy"})
+public class LazyProfileTests {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Test
+    public void controllerPathIsCreatedAtStartup() {
+        assertThat(context.getBeanFactory().containsSingleton("recipeController")).isTrue();
+        assertThat(context.getBeanFactory().containsSingleton("ingredientController")).isTrue();
+        assertThat(context.getBeanFactory().containsSingleton("recipeService")).isTrue();
+        assertThat(context.getBeanFactory().containsSingleton("ingredientService")).isTrue();
+    }
+
+    @Test
+    public void otherBeansAreCreatedOnFirstUse() {
+        assertThat(context.getBeanFactory().getBeanDefinition("metricsConfiguration").isLazyInit()).isTrue();
+        assertThat(context.getBeanFactory().getBeanDefinition("recipeController").isLazyInit()).isFalse();
+    }
+}
@@ -0,0 +1,92 @@
+package com.test.restaurant.config;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.config.metrics.RepositoryMetricsPostProcessor;
+import com.test.restaurant.config.metrics.StatementCountFilter;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.repository.RecipeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = RestaurantApplication.class)
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles(profiles = "test")
+public class MetricsConfigurationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Recipe recipe;
+
+    @BeforeAll
+    public void initTest() {
+        recipe = new Recipe();
+        recipe.setName("Name");
+        recipe.setDescription("Descr");
+        recipe = recipeRepository.save(recipe);
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        recipeRepository.deleteAll();
+    }
+
+    @Test
+    public void requestMetricsAreRecorded() throws Exception {
+        // the request reads the recipe from the database, not from the second-level cache
+        entityManagerFactory.getCache().evictAll();
+        mockMvc.perform(get("/recipes/{id}", recipe.getId()))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("http.server.requests").tag("uri", "/recipes/{id}").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(StatementCountFilter.METRIC_NAME).tag("uri", "/recipes/{id}").summary().totalAmount())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(RepositoryMetricsPostProcessor.METRIC_NAME)
+                .tag("repository", "RecipeRepository").tag("method", "findById").tag("state", "SUCCESS")
+                .timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("hibernate.entities.loads").functionCounter().count())
+                .isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public void prometheusEndpointExposesHistograms() throws Exception {
+        mockMvc.perform(get("/recipes"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(Matchers.containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(Matchers.containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(Matchers.containsString("hibernate_statements_per_request")));
+    }
+}
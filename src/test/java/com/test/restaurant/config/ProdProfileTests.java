@@ -0,0 +1,37 @@
+package com.test.restaurant.config;
+
+import com.test.restaurant.RestaurantApplication;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts the prod profile on an in-memory database: the Flyway migrations create the schema
+ * and Hibernate validates the mappings against it.
+ */
+@SpringBootTest(classes = RestaurantApplication.class,
+        properties = "spring.datasource.url=jdbc:h2:mem:prodProfileTests;DB_CLOSE_DELAY=-1")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles(profiles = "prod")
+public class ProdProfileTests {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void schemaIsMigrated() {
+        assertThat(flyway.info().applied()).hasSize(2);
+        assertThat(jdbcTemplate.queryForList("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEXES " +
+                "WHERE INDEX_NAME = 'INGREDIENTS_RECIPE_ID_IDX' ORDER BY ORDINAL_POSITION", String.class))
+                .containsExactly("RECIPE_ID", "ID");
+    }
+}
@@ -0,0 +1,147 @@
+package com.test.restaurant.config;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.repository.IngredientRepository;
+import com.test.restaurant.repository.RecipeRepository;
+import com.test.restaurant.service.IngredientService;
+import com.test.restaurant.service.RecipeService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.util.StreamUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = RestaurantApplication.class, properties = "restaurant.response-cache.compression-min-size=0")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles(profiles = "test")
+public class ResponseCacheConfigurationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Recipe recipe;
+
+    @BeforeEach
+    public void initTest() {
+        recipe = new Recipe();
+        recipe.setName("Name");
+        recipe.setDescription("Descr");
+        recipe = recipeService.save(recipe);
+        final Ingredient ingredient = new Ingredient();
+        ingredient.setName("Ingredient");
+        ingredient.setRecipe(recipe);
+        ingredientService.save(ingredient);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        ingredientRepository.deleteAll();
+        recipeRepository.deleteAll();
+    }
+
+    @Test
+    public void listIsReplayedUntilRecipesChange() throws Exception {
+        final MockHttpServletResponse first = perform(get("/recipes").param("limit", "1"));
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        final MockHttpServletResponse replayed = perform(get("/recipes").param("limit", "1"));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(replayed.getContentAsString()).isEqualTo(first.getContentAsString()).contains("\"Name\"");
+        assertThat(replayed.getHeader(HttpHeaders.LINK)).isEqualTo(first.getHeader(HttpHeaders.LINK)).isNotNull();
+        assertThat(replayed.getContentType()).isEqualTo(first.getContentType());
+        assertThat(replayed.getContentLength()).isEqualTo(first.getContentAsByteArray().length);
+
+        recipe.setName("UPDATED");
+        recipeService.save(recipe);
+
+        assertThat(perform(get("/recipes").param("limit", "1")).getContentAsString())
+                .contains("\"UPDATED\"")
+                .doesNotContain("\"Name\"");
+    }
+
+    @Test
+    public void ingredientChangesDoNotInvalidateRecipes() throws Exception {
+        final String recipes = perform(get("/recipes")).getContentAsString();
+        perform(get("/ingredients"));
+
+        final Ingredient other = new Ingredient();
+        other.setName("Other");
+        other.setRecipe(recipe);
+        ingredientService.save(other);
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(perform(get("/recipes")).getContentAsString()).isEqualTo(recipes);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(perform(get("/ingredients")).getContentAsString()).contains("\"Other\"");
+    }
+
+    @Test
+    public void gzipEncodingIsServedWhenAccepted() throws Exception {
+        final MockHttpServletResponse identity = perform(get("/recipes").param("expand", "ingredients"));
+        assertThat(identity.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(identity.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+
+        final MockHttpServletResponse gzip = perform(get("/recipes").param("expand", "ingredients")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+
+        assertThat(gzip.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gunzip(gzip.getContentAsByteArray())).isEqualTo(identity.getContentAsString()).contains("\"Ingredient\"");
+        assertThat(perform(get("/recipes").param("expand", "ingredients")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity")).getHeader(HttpHeaders.CONTENT_ENCODING))
+                .isNull();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(StreamUtils.copyToByteArray(gzip), "UTF-8");
+        }
+    }
+}
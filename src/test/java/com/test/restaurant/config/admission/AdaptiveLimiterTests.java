@@ -0,0 +1,85 @@
+package com.test.restaurant.config.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveLimiterTests {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    public void rejectsBeyondLimit() {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 10, 1.5);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        limiter.release();
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void limitGrowsWhileLatencyIsSteady() {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(10, 1, 100, 1.5);
+
+        saturate(limiter, FAST, 20);
+
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+        assertThat(limiter.getLimit()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    public void limitShrinksWhenLatencyRises() {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(50, 1, 100, 1.5);
+        saturate(limiter, FAST, 5);
+        final int limit = limiter.getLimit();
+
+        saturate(limiter, SLOW, 5);
+
+        assertThat(limiter.getLimit()).isLessThan(limit);
+    }
+
+    @Test
+    public void limitShrinksOnFailuresButNotBelowMinimum() {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(10, 4, 100, 1.5);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, true);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    public void limitIsKeptWhenFarFromIt() {
+        final AdaptiveLimiter limiter = new AdaptiveLimiter(10, 1, 100, 1.5);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(i % 2 == 0 ? FAST : SLOW, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    /**
+     * Takes all the permits then releases them with the latency, {@code rounds} times.
+     */
+    private static void saturate(AdaptiveLimiter limiter, long latency, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(latency, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.test.restaurant.config.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReadWriteRoutingDataSourceTests {
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection firstReplicaConnection = mock(Connection.class);
+    private final Connection secondReplicaConnection = mock(Connection.class);
+
+    @AfterEach
+    public void clearTransaction() {
+        ReadWriteRoutingDataSource.setClient(null);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void readOnlyTransactionsGoToReplicasInTurn() throws Exception {
+        final ReadWriteRoutingDataSource dataSource = createDataSource(Duration.ZERO);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(dataSource.getConnection()).isSameAs(firstReplicaConnection);
+        assertThat(dataSource.getConnection()).isSameAs(secondReplicaConnection);
+        assertThat(dataSource.getConnection()).isSameAs(firstReplicaConnection);
+    }
+
+    @Test
+    public void otherConnectionsGoToPrimary() throws Exception {
+        final ReadWriteRoutingDataSource dataSource = createDataSource(Duration.ZERO);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    public void readsStayOnPrimaryAfterWrite() throws Exception {
+        final ReadWriteRoutingDataSource dataSource = createDataSource(Duration.ofHours(1));
+        ReadWriteRoutingDataSource.setClient(new ReadWriteRoutingDataSource.Client(0));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(dataSource.getConnection()).isSameAs(firstReplicaConnection);
+
+        beginWrite();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    public void readsStayOnReplicasAfterRollbackOrWithoutTransaction() throws Exception {
+        final ReadWriteRoutingDataSource dataSource = createDataSource(Duration.ofHours(1));
+        ReadWriteRoutingDataSource.setClient(new ReadWriteRoutingDataSource.Client(0));
+
+        beginWrite();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        // a connection outside of any transaction
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertThat(dataSource.getConnection()).isSameAs(firstReplicaConnection);
+    }
+
+    @Test
+    public void readsOfOtherClientsStayOnReplicasAfterWrite() throws Exception {
+        final ReadWriteRoutingDataSource dataSource = createDataSource(Duration.ofHours(1));
+        final ReadWriteRoutingDataSource.Client writer = new ReadWriteRoutingDataSource.Client(0);
+        final ReadWriteRoutingDataSource.Client reader = new ReadWriteRoutingDataSource.Client(0);
+        ReadWriteRoutingDataSource.setClient(writer);
+        beginWrite();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadWriteRoutingDataSource.setClient(reader);
+        assertThat(dataSource.getConnection()).isSameAs(firstReplicaConnection);
+        ReadWriteRoutingDataSource.setClient(null);
+        assertThat(dataSource.getConnection()).isSameAs(secondReplicaConnection);
+        ReadWriteRoutingDataSource.setClient(writer);
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    public void readsGoBackToReplicasOnceLagIsOver() throws Exception {
+        final ReadWriteRoutingDataSource dataSource = createDataSource(Duration.ofMillis(100));
+        ReadWriteRoutingDataSource.setClient(new ReadWriteRoutingDataSource.Client(0));
+        beginWrite();
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        Thread.sleep(150);
+        // the lag is counted from the commit of the write transaction
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        Thread.sleep(150);
+        assertThat(dataSource.getConnection()).isSameAs(firstReplicaConnection);
+    }
+
+    private static void beginWrite() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private static void complete(int status) {
+        final List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private ReadWriteRoutingDataSource createDataSource(Duration maxLag) throws Exception {
+        final ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(dataSource(primaryConnection),
+                Arrays.asList(dataSource(firstReplicaConnection), dataSource(secondReplicaConnection)), maxLag);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    private static DataSource dataSource(Connection connection) throws Exception {
+        final DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
@@ -0,0 +1,70 @@
+package com.test.restaurant.config.datasource;
+
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.event.IngredientDeletedEvent;
+import com.test.restaurant.service.event.IngredientSavedEvent;
+import com.test.restaurant.service.event.RecipeSavedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplicaLagEvictionTests {
+    private final List<ReplicaLagEviction.Writes> evictions = new CopyOnWriteArrayList<>();
+    private final ReplicaLagEviction eviction = new ReplicaLagEviction(Duration.ofMillis(200), evictions::add);
+
+    @AfterEach
+    public void tearDown() {
+        eviction.destroy();
+    }
+
+    @Test
+    public void evictsWrittenEntriesOnceLagIsOver() throws Exception {
+        eviction.onRecipeSaved(new RecipeSavedEvent(1L, false));
+        eviction.onIngredientSaved(new IngredientSavedEvent(ingredient(2L, 3L), true));
+
+        assertThat(evictions).isEmpty();
+        Thread.sleep(300);
+        // in one batch, or two if the writes were a millisecond apart
+        assertThat(evictions).isNotEmpty();
+        assertThat(evictions).flatExtracting(ReplicaLagEviction.Writes::getRecipeIds).containsOnly(1L);
+        assertThat(evictions).flatExtracting(ReplicaLagEviction.Writes::getIngredientIds).containsOnly(2L);
+        assertThat(evictions).flatExtracting(ReplicaLagEviction.Writes::getRecipeIdsOfIngredients).containsOnly(3L);
+        assertThat(evictions).noneMatch(ReplicaLagEviction.Writes::isIngredientsOfAllRecipes);
+        final int batches = evictions.size();
+        Thread.sleep(300);
+        assertThat(evictions).hasSize(batches);
+    }
+
+    @Test
+    public void evictsWritesDuringLagAgainLater() throws Exception {
+        eviction.onRecipeSaved(new RecipeSavedEvent(1L, false));
+        Thread.sleep(100);
+        eviction.onIngredientDeleted(new IngredientDeletedEvent(2L));
+
+        Thread.sleep(150);
+        assertThat(evictions).hasSize(1);
+        assertThat(evictions.get(0).getRecipeIds()).containsOnly(1L);
+        assertThat(evictions.get(0).getIngredientIds()).isEmpty();
+        // the second write in a batch of its own, a lag after it
+        Thread.sleep(200);
+        assertThat(evictions).hasSize(2);
+        assertThat(evictions.get(1).getRecipeIds()).isEmpty();
+        assertThat(evictions.get(1).getIngredientIds()).containsOnly(2L);
+        assertThat(evictions.get(1).isIngredientsOfAllRecipes()).isTrue();
+    }
+
+    private static Ingredient ingredient(Long id, Long recipeId) {
+        final Recipe recipe = new Recipe();
+        recipe.setId(recipeId);
+        final Ingredient ingredient = new Ingredient();
+        ingredient.setId(id);
+        ingredient.setRecipe(recipe);
+        return ingredient;
+    }
+}
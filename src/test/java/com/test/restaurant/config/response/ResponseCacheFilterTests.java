@@ -0,0 +1,110 @@
+package com.test.restaurant.config.response;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCacheFilterTests {
+    private static final int CALLERS = 8;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final ResponseCacheFilter filter = new ResponseCacheFilter(Caffeine.newBuilder().build(),
+            request -> version.get(), Long.MAX_VALUE);
+
+    private final AtomicInteger builds = new AtomicInteger();
+
+    private final CountDownLatch building = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /**
+     * Serializes the version of the data, the first build waiting for {@link #release}.
+     */
+    private final FilterChain chain = (request, response) -> {
+        final long builtVersion = version.get();
+        if (builds.getAndIncrement() == 0) {
+            building.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(("[" + builtVersion + "]").getBytes(StandardCharsets.UTF_8));
+    };
+
+    private ExecutorService callers;
+
+    @BeforeEach
+    public void setup() {
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void concurrentMissesShareOneSerialization() throws Exception {
+        final List<Future<String>> bodies = new ArrayList<>();
+        bodies.add(callers.submit(this::get));
+        building.await();
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        for (int i = 1; i < CALLERS; i++) {
+            bodies.add(callers.submit(() -> {
+                threads.add(Thread.currentThread());
+                return get();
+            }));
+        }
+        while (threads.size() < CALLERS - 1 || threads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+            Thread.sleep(1);
+        }
+
+        release.countDown();
+        for (Future<String> body : bodies) {
+            assertThat(body.get(5, TimeUnit.SECONDS)).isEqualTo("[0]");
+        }
+        assertThat(builds.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void missAfterChangeDoesNotWaitForOlderBuild() throws Exception {
+        final Future<String> older = callers.submit(this::get);
+        building.await();
+        version.incrementAndGet();
+
+        assertThat(get()).isEqualTo("[1]");
+        release.countDown();
+        assertThat(older.get(5, TimeUnit.SECONDS)).isEqualTo("[0]");
+        assertThat(builds.get()).isEqualTo(2);
+    }
+
+    private String get() throws Exception {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/recipes"), response, chain);
+        return response.getContentAsString();
+    }
+}
@@ -0,0 +1,120 @@
+package com.test.restaurant.controller;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.config.ApplicationProperties;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.repository.RecipeRepository;
+import com.test.restaurant.service.ChangeFeedService;
+import com.test.restaurant.service.RecipeService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(classes = RestaurantApplication.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles(profiles = "test")
+public class ChangeControllerTests {
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)$", Pattern.MULTILINE);
+
+    @Autowired
+    private ChangeFeedService changeFeedService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    private MockMvc restChangeMockMvc;
+
+    @BeforeAll
+    public void setup() {
+        final ChangeController changeController = new ChangeController(changeFeedService, applicationProperties);
+        this.restChangeMockMvc = MockMvcBuilders.standaloneSetup(changeController)
+                .setMessageConverters(jacksonMessageConverter)
+                .build();
+    }
+
+    @AfterAll
+    public void cleanUp() {
+        recipeRepository.deleteAll();
+    }
+
+    @Test
+    public void streamCommittedChanges() throws Exception {
+        final MockHttpServletResponse response = subscribe(null);
+
+        final Recipe recipe = new Recipe();
+        recipe.setName("Name");
+        recipe.setDescription("Descr");
+        recipeService.save(recipe);
+        recipeService.delete(recipe.getId(), null);
+
+        final String events = awaitContent(response, "\"type\":\"DELETED\"");
+        assertThat(response.getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(events)
+                .contains("{\"sequence\":")
+                .contains("\"entity\":\"RECIPE\",\"type\":\"CREATED\",\"id\":" + recipe.getId())
+                .contains("\"entity\":\"RECIPE\",\"type\":\"DELETED\",\"id\":" + recipe.getId());
+    }
+
+    @Test
+    public void resumeFromLastEventId() throws Exception {
+        final MockHttpServletResponse first = subscribe(null);
+        final Recipe recipe = new Recipe();
+        recipe.setName("First");
+        recipe.setDescription("Descr");
+        recipeService.save(recipe);
+        final Matcher eventId = EVENT_ID.matcher(awaitContent(first, "\"id\":" + recipe.getId()));
+        assertThat(eventId.find()).isTrue();
+
+        // changed while the client is disconnected
+        recipe.setName("Second");
+        recipeService.save(recipe);
+
+        final String resumed = awaitContent(subscribe(eventId.group(1)), "\"type\":\"UPDATED\"");
+        assertThat(resumed).doesNotContain("\"type\":\"CREATED\"");
+
+        // too old to be resumed
+        assertThat(awaitContent(subscribe("1"), "event:" + ChangeController.RESET_EVENT)).doesNotContain("\"entity\"");
+    }
+
+    private MockHttpServletResponse subscribe(String lastEventId) throws Exception {
+        return restChangeMockMvc.perform(lastEventId == null ? get("/changes") : get("/changes").header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString().contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(response.getContentAsString()).contains(expected);
+        return response.getContentAsString();
+    }
+}
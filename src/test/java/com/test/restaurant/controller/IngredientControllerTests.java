@@ -1,21 +1,29 @@
 package com.test.restaurant.controller;
 
 import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.controller.util.NdjsonWriter;
 import com.test.restaurant.entity.Ingredient;
 import com.test.restaurant.entity.Recipe;
 import com.test.restaurant.repository.IngredientRepository;
 import com.test.restaurant.repository.RecipeRepository;
+import com.test.restaurant.service.IngredientIngestionService;
 import com.test.restaurant.service.IngredientService;
 import com.test.restaurant.service.RecipeService;
+import com.test.restaurant.service.dto.IngredientDTO;
+import com.test.restaurant.service.mapper.IngredientMapper;
+import com.test.restaurant.service.mapper.RecipeMapper;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
@@ -23,6 +31,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,29 +55,47 @@ public class IngredientControllerTests {
     @Autowired
     private IngredientService ingredientService;
 
+    @Autowired
+    private IngredientIngestionService ingestionService;
+
     @Autowired
     private IngredientRepository ingredientRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private IngredientMapper ingredientMapper;
 
     @Autowired
     private RecipeService recipeService;
 
+    @Autowired
+    private RecipeMapper recipeMapper;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborMessageConverter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private Validator validator;
+
 
     private MockMvc restCategoryMockMvc;
 
     private Ingredient ingredient;
 
+    private Recipe otherRecipe;
+
     @BeforeAll
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final IngredientController ingredientController = new IngredientController(ingredientService, recipeService, modelMapper);
+        final IngredientController ingredientController = new IngredientController(ingredientService, recipeService, ingestionService, ingredientMapper,
+                recipeMapper, jacksonMessageConverter.getObjectMapper(), validator);
         this.restCategoryMockMvc = MockMvcBuilders.standaloneSetup(ingredientController)
-                .setMessageConverters(jacksonMessageConverter)
+                .setMessageConverters(jacksonMessageConverter, cborMessageConverter)
                 .build();
     }
 
@@ -76,6 +109,7 @@ public class IngredientControllerTests {
         recipe2.setName("REC2");
         recipe2.setDescription("Desc2");
         recipeRepository.save(recipe2);
+        otherRecipe = recipe2;
 
         ingredient = createIngredientEntity(recipe);
         ingredientRepository.saveAndFlush(ingredient);
@@ -100,6 +134,97 @@ public class IngredientControllerTests {
                 .andExpect(jsonPath("$.[*].id").value(hasItem(ingredient.getId().intValue())));
     }
 
+    @Test
+    @Transactional
+    public void getIngredientsPage() throws Exception {
+        // Get the first page of ingredients with a link to the next one
+        restCategoryMockMvc.perform(get("/ingredients").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(header().string(HttpHeaders.LINK, Matchers.containsString("after=" + ingredient.getId())));
+
+        // Get the page after the last ingredient
+        restCategoryMockMvc.perform(get("/ingredients").param("after", ingredient.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(0)))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    public void getAllIngredientsInOneStatement() throws Exception {
+        final Ingredient other = createIngredientEntity(otherRecipe);
+        other.setId(null);
+        other.setName("INGR2");
+        ingredientRepository.saveAndFlush(other);
+        entityManager.clear();
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+
+        // Get all the ingredients of two different recipes
+        restCategoryMockMvc.perform(get("/ingredients"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$.[*].recipe.name").value(Matchers.containsInAnyOrder("REC1", "REC2")));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    public void getIngredientsNormalized() throws Exception {
+        final Ingredient sameRecipe = createIngredientEntity(ingredient.getRecipe());
+        sameRecipe.setId(null);
+        sameRecipe.setName("INGR2");
+        ingredientRepository.saveAndFlush(sameRecipe);
+        final Ingredient other = createIngredientEntity(otherRecipe);
+        other.setId(null);
+        other.setName("INGR3");
+        ingredientRepository.saveAndFlush(other);
+
+        // Get the ingredients with each of their recipes sent once
+        restCategoryMockMvc.perform(get("/ingredients").param("normalized", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recipes.[*].name").value(Matchers.contains("REC1", "REC2")))
+                .andExpect(jsonPath("$.ingredients", Matchers.hasSize(3)))
+                .andExpect(jsonPath("$.ingredients.[*].recipeId").value(Matchers.contains(ingredient.getRecipe().getId().intValue(),
+                        ingredient.getRecipe().getId().intValue(), otherRecipe.getId().intValue())))
+                .andExpect(jsonPath("$.ingredients.[*].recipe").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getAllIngredientsAsCbor() throws Exception {
+        // Get all the ingredients in CBOR
+        final byte[] content = restCategoryMockMvc.perform(get("/ingredients").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        final IngredientDTO[] ingredientDTOS = cborMessageConverter.getObjectMapper().readValue(content, IngredientDTO[].class);
+        assertThat(ingredientDTOS).extracting(IngredientDTO::getId).contains(ingredient.getId());
+        assertThat(ingredientDTOS).extracting(ingredientDTO -> ingredientDTO.getRecipe().getName()).contains("REC1");
+    }
+
+    @Test
+    @Transactional
+    public void exportIngredients() throws Exception {
+        final Ingredient other = createIngredientEntity(otherRecipe);
+        other.setId(null);
+        other.setName("INGR2");
+        ingredientRepository.saveAndFlush(other);
+
+        // Export all the ingredients, one per line
+        final String[] lines = restCategoryMockMvc.perform(get("/ingredients/export").param("embedRecipe", "false"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(NdjsonWriter.APPLICATION_NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).containsExactly(
+                "{\"id\":" + ingredient.getId() + ",\"name\":\"INGR\",\"recipeId\":" + ingredient.getRecipe().getId() + "}",
+                "{\"id\":" + other.getId() + ",\"name\":\"INGR2\",\"recipeId\":" + otherRecipe.getId() + "}");
+    }
+
     @Test
     @Transactional
     public void getIngredientById() throws Exception {
@@ -110,6 +235,42 @@ public class IngredientControllerTests {
                 .andExpect(jsonPath("id").value(ingredient.getId().intValue()));
     }
 
+    @Test
+    @Transactional
+    public void getIngredientByIdInOneStatement() throws Exception {
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+
+        // Get ingredient by id with its recipe
+        restCategoryMockMvc.perform(get("/ingredients/{id}", ingredient.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("recipe.name").value("REC1"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    public void getIngredientByIdWithRecipeId() throws Exception {
+        // Get ingredient by id with the recipe id only
+        restCategoryMockMvc.perform(get("/ingredients/{id}", ingredient.getId()).param("embedRecipe", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("recipe").doesNotExist())
+                .andExpect(jsonPath("recipeId").value(ingredient.getRecipe().getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    public void getNotModifiedIngredientById() throws Exception {
+        // The ETag holds the versions of the ingredient and of its embedded recipe
+        restCategoryMockMvc.perform(get("/ingredients/{id}", ingredient.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0-0\""));
+        // Get unchanged ingredient by id
+        restCategoryMockMvc.perform(get("/ingredients/{id}", ingredient.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0-0\""))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     @Transactional
     public void getNonExistingIngredientById() throws Exception {
@@ -128,6 +289,15 @@ public class IngredientControllerTests {
         assertThat(ingredientRepository.findAll()).hasSize(0);
     }
 
+    @Test
+    @Transactional
+    public void deleteIngredientByIdIfMatch() throws Exception {
+        // Delete existing ingredient by id if it is unchanged
+        restCategoryMockMvc.perform(delete("/ingredients/{id}", ingredient.getId()).header(HttpHeaders.IF_MATCH, "\"0-0\""))
+                .andExpect(status().isOk());
+        assertThat(ingredientRepository.findAll()).hasSize(0);
+    }
+
     @Test
     @Transactional
     public void deleteNonExistingIngredientById() throws Exception {
@@ -152,6 +322,34 @@ public class IngredientControllerTests {
         assertThat(ingredientRepository.findAll()).hasSize(1);
     }
 
+    @Test
+    @Transactional
+    public void updateIngredientByIdWithStaleETag() throws Exception {
+        final String json = "{\"name\": \"NEW\", \"recipeId\": " + otherRecipe.getId() + "}";
+        // Update existing ingredient by id changed since it was read
+        restCategoryMockMvc.perform(put("/ingredients/{id}", ingredient.getId()).header(HttpHeaders.IF_MATCH, "\"3-0\"")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(ingredientRepository.findAll()).extracting(Ingredient::getName).containsExactly("INGR");
+    }
+
+    @Test
+    @Transactional
+    public void updateIngredientByIdWithStaleRecipeInETag() throws Exception {
+        final String json = "{\"name\": \"NEW\", \"recipeId\": " + otherRecipe.getId() + "}";
+        // Update existing ingredient by id whose embedded recipe changed since it was read
+        restCategoryMockMvc.perform(put("/ingredients/{id}", ingredient.getId())
+                .header(HttpHeaders.IF_MATCH, "\"" + ingredient.getVersion() + "-" + (ingredient.getRecipe().getVersion() + 1) + "\"")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isPreconditionFailed());
+        restCategoryMockMvc.perform(delete("/ingredients/{id}", ingredient.getId())
+                .header(HttpHeaders.IF_MATCH, "\"" + ingredient.getVersion() + "-" + (ingredient.getRecipe().getVersion() + 1) + "\""))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(ingredientRepository.findAll()).extracting(Ingredient::getName).containsExactly("INGR");
+    }
+
     @Test
     @Transactional
     public void updateNonExistingIngredientById() throws Exception {
@@ -177,4 +375,147 @@ public class IngredientControllerTests {
 
         assertThat(ingredientRepository.findAll()).hasSize(2);
     }
+
+    @Test
+    public void createIngredientWithoutEmbeddedRecipeInOneStatement() throws Exception {
+        recipeService.loadRecipeIds();
+        final List<Long> created = new ArrayList<>();
+        final Statistics statistics = getStatistics();
+        for (String name : Arrays.asList("FIRST", "SECOND")) {
+            statistics.clear();
+            final String json = "{\"name\": \"" + name + "\", \"recipeId\": " + otherRecipe.getId() + "}";
+            // Create ingredient, only referencing its recipe
+            final String response = restCategoryMockMvc.perform(post("/ingredients").param("embedRecipe", "false")
+                    .contentType(MediaType.APPLICATION_JSON).content(json))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("recipeId").value(otherRecipe.getId().intValue()))
+                    .andExpect(jsonPath("recipe").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+            created.add(jacksonMessageConverter.getObjectMapper().readValue(response, IngredientDTO.class).getId());
+        }
+        // the first creation may have allocated a block of ids from the sequence
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+
+        created.forEach(id -> ingredientService.delete(id, null, null));
+    }
+
+    @Test
+    public void createIngredientWithDeletedRecipe() throws Exception {
+        final Recipe recipe = new Recipe();
+        recipe.setName("DELETED");
+        recipe.setDescription("Desc");
+        final Long recipeId = recipeService.save(recipe).getId();
+        // delete the recipe behind the back of the service, so that its id is still indexed
+        recipeRepository.deleteById(recipeId);
+
+        final String json = "{\"name\": \"ORPHAN\", \"recipeId\": " + recipeId + "}";
+        restCategoryMockMvc.perform(post("/ingredients").param("embedRecipe", "false")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertThat(ingredientService.findByNames(Collections.singletonList("ORPHAN"))).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    public void updateIngredientByIdWithoutEmbeddedRecipeInOneStatement() throws Exception {
+        recipeService.loadRecipeIds();
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+
+        final String json = "{\"name\": \"NEW\", \"recipeId\": " + otherRecipe.getId() + "}";
+        restCategoryMockMvc.perform(put("/ingredients/{id}", ingredient.getId()).param("embedRecipe", "false")
+                .header(HttpHeaders.IF_MATCH, "\"" + ingredient.getVersion() + "\"")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (ingredient.getVersion() + 1) + "\""))
+                .andExpect(jsonPath("recipeId").value(otherRecipe.getId().intValue()))
+                .andExpect(jsonPath("recipe").doesNotExist());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional
+    public void getIngredientsByIds() throws Exception {
+        final Ingredient otherIngredient = new Ingredient();
+        otherIngredient.setName("OTHER");
+        otherIngredient.setRecipe(otherRecipe);
+        ingredientRepository.saveAndFlush(otherIngredient);
+        entityManager.clear();
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+
+        // Get ingredients by ids with their recipes, in the order of the ids
+        restCategoryMockMvc.perform(get("/ingredients").param("ids", otherIngredient.getId() + "," + ingredient.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(Matchers.contains(otherIngredient.getId().intValue(), ingredient.getId().intValue())))
+                .andExpect(jsonPath("$.[0].recipe.name").value("REC2"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void ingestIngredient() throws Exception {
+        final String json = "{\"name\": \"QUEUED\", \"recipeId\": " + otherRecipe.getId() + "}";
+        // Queue the creation of an ingredient
+        final String location = restCategoryMockMvc.perform(post("/ingredients")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, Matchers.containsString("/ingredients/ingestions/")))
+                .andExpect(jsonPath("status").value(202))
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+        // Poll its status until it is written
+        int status = 202;
+        for (int i = 0; i < 100 && status == 202; i++) {
+            Thread.sleep(50);
+            status = Integer.parseInt(restCategoryMockMvc.perform(get(location))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString().replaceAll(".*\"status\":(\\d+).*", "$1"));
+        }
+        assertThat(status).isEqualTo(201);
+        restCategoryMockMvc.perform(get(location))
+                .andExpect(jsonPath("item.name").value("QUEUED"))
+                .andExpect(jsonPath("item.recipe.name").value("REC2"));
+
+        final Ingredient queued = ingredientService.findByNames(Collections.singletonList("QUEUED")).get(0);
+        ingredientService.delete(queued.getId(), null, null);
+    }
+
+    @Test
+    public void ingestIngredientWithNonExistingRecipe() throws Exception {
+        final String json = "{\"name\": \"QUEUED\", \"recipeId\": 999}";
+        restCategoryMockMvc.perform(post("/ingredients")
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isUnprocessableEntity());
+
+        restCategoryMockMvc.perform(get("/ingredients/ingestions/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void upsertIngredients() throws Exception {
+        final String json = "[{\"name\": \"NEW\", \"recipe\": {\"id\": " + otherRecipe.getId() + "}}, "
+                + "{\"name\": \"NO RECIPE\", \"recipeId\": 999}, "
+                + "{\"name\": \"INGR\", \"recipeId\": " + otherRecipe.getId() + "}, "
+                + "{\"id\": " + ingredient.getId() + ", \"name\": \"UPDATED\", \"recipeId\": " + otherRecipe.getId() + "}]";
+        // Create, update and reject ingredients in one batch
+        restCategoryMockMvc.perform(post("/ingredients/batch")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].status").value(Matchers.contains(201, 422, 409, 200)))
+                .andExpect(jsonPath("$.[0].item.recipe.name").value("REC2"))
+                .andExpect(jsonPath("$.[1].error").value("Cannot found recipe with id: 999"))
+                .andExpect(jsonPath("$.[3].item.id").value(ingredient.getId().intValue()))
+                .andExpect(jsonPath("$.[3].item.name").value("UPDATED"));
+
+        assertThat(ingredientRepository.findAll()).extracting(Ingredient::getName).containsExactlyInAnyOrder("NEW", "UPDATED");
+    }
+
+    private Statistics getStatistics() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
 }
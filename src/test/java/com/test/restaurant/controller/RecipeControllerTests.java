@@ -1,25 +1,39 @@
 package com.test.restaurant.controller;
 
 import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.controller.util.NdjsonWriter;
+import com.test.restaurant.entity.Ingredient;
 import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.repository.IngredientRepository;
 import com.test.restaurant.repository.RecipeRepository;
+import com.test.restaurant.service.RecipeSearchService;
 import com.test.restaurant.service.RecipeService;
+import com.test.restaurant.service.dto.RecipeDTO;
+import com.test.restaurant.service.event.IngredientSavedEvent;
+import com.test.restaurant.service.mapper.IngredientMapper;
+import com.test.restaurant.service.mapper.RecipeMapper;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.validation.Validator;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -35,14 +49,32 @@ public class RecipeControllerTests {
     private RecipeRepository recipeRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private RecipeMapper recipeMapper;
+
+    @Autowired
+    private IngredientMapper ingredientMapper;
 
     @Autowired
     private RecipeService recipeService;
 
+    @Autowired
+    private RecipeSearchService recipeSearchService;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileMessageConverter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private Validator validator;
+
 
     private MockMvc restCategoryMockMvc;
 
@@ -51,9 +83,10 @@ public class RecipeControllerTests {
     @BeforeAll
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final RecipeController recipeController = new RecipeController(recipeService, modelMapper);
+        final RecipeController recipeController = new RecipeController(recipeService, recipeSearchService, recipeMapper, ingredientMapper, jacksonMessageConverter.getObjectMapper(),
+                validator);
         this.restCategoryMockMvc = MockMvcBuilders.standaloneSetup(recipeController)
-                .setMessageConverters(jacksonMessageConverter)
+                .setMessageConverters(jacksonMessageConverter, smileMessageConverter)
                 .build();
     }
 
@@ -82,6 +115,94 @@ public class RecipeControllerTests {
                 .andExpect(jsonPath("$.[*].id").value(hasItem(recipe.getId().intValue())));
     }
 
+    @Test
+    @Transactional
+    public void getAllRecipesAsSmile() throws Exception {
+        final MediaType smile = MediaType.valueOf("application/x-jackson-smile");
+        // Get all the recipes in Smile
+        final byte[] content = restCategoryMockMvc.perform(get("/recipes").accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smile))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        final RecipeDTO[] recipeDTOS = smileMessageConverter.getObjectMapper().readValue(content, RecipeDTO[].class);
+        assertThat(recipeDTOS).extracting(RecipeDTO::getName).contains(recipe.getName());
+    }
+
+    @Test
+    @Transactional
+    public void getRecipesPage() throws Exception {
+        // Get the first page of recipes with a link to the next one
+        restCategoryMockMvc.perform(get("/recipes").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(header().string(HttpHeaders.LINK, Matchers.containsString("after=" + recipe.getId())));
+
+        // Get the page after the last recipe
+        restCategoryMockMvc.perform(get("/recipes").param("after", recipe.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(0)))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @Transactional
+    public void getRecipesByIdsInOneStatement() throws Exception {
+        final Recipe otherRecipe = new Recipe();
+        otherRecipe.setName("Other");
+        otherRecipe.setDescription("Descr");
+        recipeRepository.saveAndFlush(otherRecipe);
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+
+        // Get recipes by ids, in the order of the ids, skipping the unknown ones
+        restCategoryMockMvc.perform(get("/recipes").param("ids", otherRecipe.getId() + "," + recipe.getId() + ",999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(Matchers.contains(otherRecipe.getId().intValue(), recipe.getId().intValue())))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        restCategoryMockMvc.perform(get("/recipes").param("ids", ""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void getRecipesPageWithInvalidLimit() throws Exception {
+        restCategoryMockMvc.perform(get("/recipes").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void searchRecipesByIngredient() throws Exception {
+        final Ingredient ingredient = new Ingredient();
+        ingredient.setId(1L);
+        ingredient.setName("Tomato");
+        ingredient.setRecipe(recipe);
+        recipeSearchService.onIngredientSaved(new IngredientSavedEvent(ingredient, true));
+
+        // Search recipes by the beginning of an ingredient name
+        restCategoryMockMvc.perform(get("/recipes/search").param("ingredient", "TOM"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(Matchers.contains(recipe.getId().intValue())));
+        restCategoryMockMvc.perform(get("/recipes/search").param("ingredient", "tomatoes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+        restCategoryMockMvc.perform(get("/recipes/search").param("ingredient", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void exportRecipes() throws Exception {
+        // Export all the recipes, one per line
+        restCategoryMockMvc.perform(get("/recipes/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(NdjsonWriter.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string("{\"id\":" + recipe.getId() + ",\"name\":\"Name\",\"description\":\"Descr\"}\n"));
+    }
+
     @Test
     @Transactional
     public void getRecipeById() throws Exception {
@@ -92,6 +213,86 @@ public class RecipeControllerTests {
                 .andExpect(jsonPath("id").value(recipe.getId().intValue()));
     }
 
+    @Test
+    @Transactional
+    public void getRecipeByIdWithETag() throws Exception {
+        // Get recipe by id with its version as ETag
+        restCategoryMockMvc.perform(get("/recipes/{id}", recipe.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    @Test
+    @Transactional
+    public void getNotModifiedRecipeById() throws Exception {
+        // Get unchanged recipe by id
+        restCategoryMockMvc.perform(get("/recipes/{id}", recipe.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    public void getRecipeByIdWithIngredientsInOneStatement() throws Exception {
+        final Ingredient tomato = createIngredient("Tomato", recipe);
+        createIngredient("Basil", recipe);
+        entityManager.flush();
+        entityManager.clear();
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+
+        // Get recipe by id with its ingredients
+        final String eTag = restCategoryMockMvc.perform(get("/recipes/{id}", recipe.getId()).param("expand", "ingredients"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("id").value(recipe.getId().intValue()))
+                .andExpect(jsonPath("ingredients[*].name").value(Matchers.contains("Tomato", "Basil")))
+                .andExpect(jsonPath("ingredients[0].recipeId").value(recipe.getId().intValue()))
+                .andExpect(jsonPath("ingredients[0].recipe").doesNotExist())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        // The ETag changes with the ingredients
+        ingredientRepository.deleteById(tomato.getId());
+        entityManager.flush();
+        entityManager.clear();
+        restCategoryMockMvc.perform(get("/recipes/{id}", recipe.getId()).param("expand", "ingredients")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("ingredients[*].name").value(Matchers.contains("Basil")));
+
+        // Without the expansion, there are no ingredients
+        restCategoryMockMvc.perform(get("/recipes/{id}", recipe.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("ingredients").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    public void getRecipesPageWithIngredientsInTwoStatements() throws Exception {
+        final Recipe otherRecipe = new Recipe();
+        otherRecipe.setName("Other");
+        otherRecipe.setDescription("Descr");
+        recipeRepository.save(otherRecipe);
+        createIngredient("Tomato", recipe);
+        createIngredient("Basil", otherRecipe);
+        createIngredient("Garlic", otherRecipe);
+        entityManager.flush();
+        entityManager.clear();
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+
+        // Get a page of recipes with their ingredients
+        restCategoryMockMvc.perform(get("/recipes").param("expand", "ingredients"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(Matchers.contains(recipe.getId().intValue(), otherRecipe.getId().intValue())))
+                .andExpect(jsonPath("$.[0].ingredients[*].name").value(Matchers.contains("Tomato")))
+                .andExpect(jsonPath("$.[1].ingredients[*].name").value(Matchers.contains("Basil", "Garlic")));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        restCategoryMockMvc.perform(get("/recipes").param("expand", "steps"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     public void getNonExistingRecipeById() throws Exception {
@@ -134,6 +335,57 @@ public class RecipeControllerTests {
         assertThat(recipeRepository.findAll()).hasSize(1);
     }
 
+    @Test
+    @Transactional
+    public void updateRecipeByIdIfMatchInOneStatement() throws Exception {
+        final String json = "{\"name\": \"NEW\", \"description\": \"NEW DESCR\"}";
+        final Statistics statistics = getStatistics();
+        statistics.clear();
+
+        // Update existing recipe by id if it is unchanged
+        restCategoryMockMvc.perform(put("/recipes/{id}", recipe.getId()).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("name").value("NEW"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(recipeRepository.findAll()).extracting(Recipe::getVersion).containsExactly(1L);
+    }
+
+    @Test
+    @Transactional
+    public void updateRecipeByIdWithStaleETag() throws Exception {
+        final String json = "{\"name\": \"NEW\", \"description\": \"NEW DESCR\"}";
+        // Update existing recipe by id changed since it was read
+        restCategoryMockMvc.perform(put("/recipes/{id}", recipe.getId()).header(HttpHeaders.IF_MATCH, "\"5\"")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(recipeRepository.findAll()).extracting(Recipe::getName).containsExactly("Name");
+    }
+
+    @Test
+    @Transactional
+    public void updateRecipeByIdWithETagOfExpandedRecipe() throws Exception {
+        final String json = "{\"name\": \"NEW\", \"description\": \"NEW DESCR\"}";
+        // Update existing recipe by id with the ETag of the recipe with its ingredients
+        restCategoryMockMvc.perform(put("/recipes/{id}", recipe.getId()).header(HttpHeaders.IF_MATCH, "\"0-1\"")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(recipeRepository.findAll()).extracting(Recipe::getName).containsExactly("Name");
+    }
+
+    @Test
+    @Transactional
+    public void deleteRecipeByIdWithStaleETag() throws Exception {
+        // Delete existing recipe by id changed since it was read
+        restCategoryMockMvc.perform(delete("/recipes/{id}", recipe.getId()).header(HttpHeaders.IF_MATCH, "\"5\""))
+                .andExpect(status().isPreconditionFailed());
+        assertThat(recipeRepository.findAll()).hasSize(1);
+    }
+
     @Test
     @Transactional
     public void updateNonExistingRecipeById() throws Exception {
@@ -160,4 +412,44 @@ public class RecipeControllerTests {
 
         assertThat(recipeRepository.findAll()).hasSize(2);
     }
+
+    @Test
+    @Transactional
+    public void upsertRecipes() throws Exception {
+        final String json = "[{\"name\": \"NEW\", \"description\": \"NEW DESCR\"}, "
+                + "{\"name\": \"\", \"description\": \"NEW DESCR\"}, "
+                + "{\"name\": \"NEW\", \"description\": \"OTHER DESCR\"}, "
+                + "{\"id\": " + recipe.getId() + ", \"name\": \"UPDATED\", \"description\": \"UPDATED DESCR\"}, "
+                + "{\"id\": 999, \"name\": \"MISSING\", \"description\": \"MISSING DESCR\"}]";
+        // Create, update and reject recipes in one batch
+        restCategoryMockMvc.perform(post("/recipes/batch")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].status").value(Matchers.contains(201, 422, 409, 200, 404)))
+                .andExpect(jsonPath("$.[0].item.name").value("NEW"))
+                .andExpect(jsonPath("$.[1].error").value("name must not be blank, name size must be between 1 and 40"))
+                .andExpect(jsonPath("$.[3].item.id").value(recipe.getId().intValue()))
+                .andExpect(jsonPath("$.[3].item.name").value("UPDATED"));
+
+        assertThat(recipeRepository.findAll()).extracting(Recipe::getName).containsExactlyInAnyOrder("NEW", "UPDATED");
+    }
+
+    @Test
+    @Transactional
+    public void upsertEmptyRecipeBatch() throws Exception {
+        restCategoryMockMvc.perform(post("/recipes/batch")
+                .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Ingredient createIngredient(String name, Recipe recipe) {
+        final Ingredient ingredient = new Ingredient();
+        ingredient.setName(name);
+        ingredient.setRecipe(recipe);
+        return ingredientRepository.save(ingredient);
+    }
+
+    private Statistics getStatistics() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
 }
@@ -0,0 +1,181 @@
+package com.test.restaurant.repository;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.config.HibernateCacheConfiguration;
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = RestaurantApplication.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles(profiles = "test")
+public class SecondLevelCacheTests {
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Recipe recipe;
+
+    private Ingredient ingredient;
+
+    @BeforeAll
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        recipe = new Recipe();
+        recipe.setName("l2 recipe");
+        recipe.setDescription("l2 description");
+        recipe = recipeRepository.save(recipe);
+        for (int i = 0; i < 3; i++) {
+            final Ingredient ingredient = new Ingredient();
+            ingredient.setName("l2 ingredient " + i);
+            ingredient.setRecipe(recipe);
+            this.ingredient = ingredientRepository.save(ingredient);
+        }
+    }
+
+    @BeforeEach
+    public void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    public void findByIdIsReadOnce() {
+        recipeRepository.findById(recipe.getId());
+        ingredientRepository.findById(ingredient.getId());
+        statistics.clear();
+
+        final Recipe found = recipeRepository.findById(recipe.getId()).orElse(null);
+        final Ingredient foundIngredient = ingredientRepository.findById(ingredient.getId()).orElse(null);
+
+        assertThat(found).isNotNull();
+        assertThat(found.getName()).isEqualTo(recipe.getName());
+        assertThat(foundIngredient).isNotNull();
+        assertThat(foundIngredient.getName()).isEqualTo(ingredient.getName());
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfiguration.RECIPES_REGION).getHitCount())
+                .isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfiguration.INGREDIENTS_REGION).getHitCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void ingredientsOfRecipeAreReadOnce() {
+        readIngredientNames();
+        statistics.clear();
+
+        final List<String> names = readIngredientNames();
+
+        assertThat(names).containsExactlyInAnyOrder("l2 ingredient 0", "l2 ingredient 1", "l2 ingredient 2");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfiguration.RECIPE_INGREDIENTS_REGION).getHitCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void listQueriesAreReadOnce() {
+        recipeRepository.findAll();
+        recipeRepository.findAllIds();
+        recipeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 10));
+        statistics.clear();
+
+        assertThat(recipeRepository.findAll()).extracting(Recipe::getId).contains(recipe.getId());
+        assertThat(recipeRepository.findAllIds()).contains(recipe.getId());
+        assertThat(recipeRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 10)))
+                .extracting(Recipe::getId).contains(recipe.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void writeInvalidatesCachedLists() {
+        recipeRepository.findAllIds();
+        final Recipe created = new Recipe();
+        created.setName("l2 created recipe");
+        created.setDescription("l2 description");
+        recipeRepository.save(created);
+
+        assertThat(recipeRepository.findAllIds()).contains(created.getId());
+
+        recipeRepository.findById(created.getId());
+        transactionTemplate.execute(status -> recipeRepository.deleteIfVersionMatches(created.getId(), null));
+        assertThat(recipeRepository.findById(created.getId())).isEmpty();
+        assertThat(recipeRepository.findAllIds()).doesNotContain(created.getId());
+    }
+
+    @Test
+    public void writesOfIngredientsAreSeenByTheirRecipes() {
+        final Recipe other = new Recipe();
+        other.setName("l2 other recipe");
+        other.setDescription("l2 description");
+        recipeRepository.save(other);
+        readIngredientNames(recipe);
+        readIngredientNames(other);
+
+        final Ingredient created = new Ingredient();
+        created.setName("l2 created ingredient");
+        created.setRecipe(recipe);
+        ingredientRepository.save(created);
+        assertThat(readIngredientNames(recipe)).contains("l2 created ingredient");
+
+        // moved by an entity update
+        transactionTemplate.execute(status -> {
+            ingredientRepository.findById(created.getId()).orElseThrow().setRecipe(other);
+            return null;
+        });
+        assertThat(readIngredientNames(recipe)).doesNotContain("l2 created ingredient");
+        assertThat(readIngredientNames(other)).containsExactly("l2 created ingredient");
+
+        // moved back by a bulk update
+        transactionTemplate.execute(status ->
+                ingredientRepository.updateIfVersionMatches(created.getId(), created.getName(), recipe, null, null));
+        assertThat(readIngredientNames(recipe)).contains("l2 created ingredient");
+        assertThat(readIngredientNames(other)).isEmpty();
+
+        // deleted by a bulk delete
+        transactionTemplate.execute(status -> ingredientRepository.deleteIfVersionMatches(created.getId(), null, null));
+        assertThat(readIngredientNames(recipe)).doesNotContain("l2 created ingredient");
+
+        recipeRepository.delete(other);
+    }
+
+    private List<String> readIngredientNames() {
+        return readIngredientNames(recipe);
+    }
+
+    private List<String> readIngredientNames(Recipe recipe) {
+        return transactionTemplate.execute(status -> recipeRepository.findById(recipe.getId()).orElseThrow()
+                .getIngredients().stream()
+                .map(Ingredient::getName)
+                .collect(Collectors.toList()));
+    }
+}
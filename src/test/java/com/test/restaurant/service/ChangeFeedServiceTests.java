@@ -0,0 +1,178 @@
+package com.test.restaurant.service;
+
+import com.test.restaurant.config.ApplicationProperties;
+import com.test.restaurant.service.feed.Change;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ChangeFeedServiceTests {
+    private static final int CAPACITY = 3;
+    private static final int SUBSCRIBER_BUFFER = 2;
+
+    private ChangeFeedService changeFeedService;
+
+    private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+    private final ChangeFeedService.Subscriber subscriber = new ChangeFeedService.Subscriber() {
+        @Override
+        public void onChange(Change change) {
+            received.add(change.getEntity() + " " + change.getId() + " " + change.getType());
+        }
+
+        @Override
+        public void onReset(long sequence) {
+            received.add("reset");
+        }
+
+        @Override
+        public void onHeartbeat() {
+        }
+
+        @Override
+        public void onOverflow() {
+            received.add("overflow");
+        }
+    };
+
+    @BeforeEach
+    public void initTest() {
+        final ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getChangeFeed().setCapacity(CAPACITY);
+        applicationProperties.getChangeFeed().setSubscriberBuffer(SUBSCRIBER_BUFFER);
+        changeFeedService = new ChangeFeedService(applicationProperties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        changeFeedService.destroy();
+    }
+
+    @Test
+    public void newSubscriberGetsFollowingChanges() throws InterruptedException {
+        changeFeedService.append(Change.Entity.RECIPE, Change.Type.CREATED, 1L);
+
+        changeFeedService.subscribe(null, subscriber);
+        changeFeedService.append(Change.Entity.INGREDIENT, Change.Type.UPDATED, 2L);
+
+        assertThat(next()).isEqualTo("INGREDIENT 2 UPDATED");
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    public void subscriberResumesAfterLastReceivedChange() throws InterruptedException {
+        final Change first = changeFeedService.append(Change.Entity.RECIPE, Change.Type.CREATED, 1L);
+        changeFeedService.append(Change.Entity.RECIPE, Change.Type.UPDATED, 1L);
+        changeFeedService.append(Change.Entity.RECIPE, Change.Type.DELETED, 1L);
+
+        changeFeedService.subscribe(first.getSequence(), subscriber);
+        changeFeedService.append(Change.Entity.RECIPE, Change.Type.CREATED, 2L);
+
+        assertThat(next()).isEqualTo("RECIPE 1 UPDATED");
+        assertThat(next()).isEqualTo("RECIPE 1 DELETED");
+        assertThat(next()).isEqualTo("RECIPE 2 CREATED");
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    public void subscriberIsResetWhenChangesAreNoLongerKept() throws InterruptedException {
+        final Change first = changeFeedService.append(Change.Entity.RECIPE, Change.Type.CREATED, 1L);
+        for (long id = 2; id <= CAPACITY + 2; id++) {
+            changeFeedService.append(Change.Entity.RECIPE, Change.Type.CREATED, id);
+        }
+
+        changeFeedService.subscribe(first.getSequence(), subscriber);
+        changeFeedService.append(Change.Entity.RECIPE, Change.Type.DELETED, 1L);
+
+        assertThat(next()).isEqualTo("reset");
+        assertThat(next()).isEqualTo("RECIPE 1 DELETED");
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    public void failingSubscriberIsUnsubscribed() throws InterruptedException {
+        changeFeedService.subscribe(null, new ChangeFeedService.Subscriber() {
+            @Override
+            public void onChange(Change change) {
+                received.add("failed");
+                throw new IllegalStateException("closed");
+            }
+
+            @Override
+            public void onReset(long sequence) {
+            }
+
+            @Override
+            public void onHeartbeat() {
+            }
+
+            @Override
+            public void onOverflow() {
+            }
+        });
+
+        changeFeedService.append(Change.Entity.RECIPE, Change.Type.CREATED, 1L);
+        changeFeedService.append(Change.Entity.RECIPE, Change.Type.CREATED, 2L);
+
+        assertThat(next()).isEqualTo("failed");
+        assertThat(received.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    public void blockedSubscriberDoesNotHoldBackOthers() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final BlockingQueue<String> overflows = new LinkedBlockingQueue<>();
+        changeFeedService.subscribe(null, new ChangeFeedService.Subscriber() {
+            @Override
+            public void onChange(Change change) throws IOException {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+
+            @Override
+            public void onReset(long sequence) {
+            }
+
+            @Override
+            public void onHeartbeat() {
+            }
+
+            @Override
+            public void onOverflow() {
+                overflows.add("overflow");
+            }
+        });
+        changeFeedService.subscribe(null, subscriber);
+
+        changeFeedService.append(Change.Entity.RECIPE, Change.Type.CREATED, 1L);
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(next()).isEqualTo("RECIPE 1 CREATED");
+        for (long id = 2; id <= SUBSCRIBER_BUFFER + 2; id++) {
+            changeFeedService.append(Change.Entity.RECIPE, Change.Type.CREATED, id);
+            assertThat(next()).isEqualTo("RECIPE " + id + " CREATED");
+        }
+        // the blocked subscriber fell too far behind: closed once it is done with its change
+        release.countDown();
+        assertThat(overflows.poll(5, TimeUnit.SECONDS)).isEqualTo("overflow");
+        assertThat(overflows.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private String next() throws InterruptedException {
+        return received.poll(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,136 @@
+package com.test.restaurant.service;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.config.ApplicationProperties;
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.repository.IngredientRepository;
+import com.test.restaurant.repository.RecipeRepository;
+import com.test.restaurant.service.ingestion.Ingestion;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = RestaurantApplication.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles(profiles = "test")
+public class IngredientIngestionServiceTests {
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private MeterRegistry meterRegistry;
+
+    private IngredientIngestionService ingestionService;
+
+    private Recipe recipe;
+
+    @BeforeEach
+    public void initTest() {
+        recipe = new Recipe();
+        recipe.setName("Soup");
+        recipe.setDescription("Descr");
+        recipe = recipeRepository.saveAndFlush(recipe);
+        ingredientRepository.saveAndFlush(createIngredient("Onion", recipe));
+
+        final ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getIngestion().setQueueCapacity(3);
+        applicationProperties.getIngestion().setBatchSize(10);
+        meterRegistry = new SimpleMeterRegistry();
+        ingestionService = new IngredientIngestionService(ingredientService, applicationProperties, meterRegistry);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        ingredientRepository.deleteAll(ingredientRepository.findByNameIn(Arrays.asList("Onion", "Garlic", "Leek")));
+        recipeRepository.delete(recipe);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    public void fullQueueRejectsIngredients() throws InterruptedException {
+        final Ingestion garlic = ingestionService.submit(createIngredient("Garlic", recipe));
+        final Ingestion onion = ingestionService.submit(createIngredient("Onion", recipe));
+        final Ingestion otherGarlic = ingestionService.submit(createIngredient("Garlic", recipe));
+        assertThat(ingestionService.submit(createIngredient("Leek", recipe))).isNull();
+        assertThat(meterRegistry.get(IngredientIngestionService.REJECTED_METRIC).counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(IngredientIngestionService.QUEUE_DEPTH_METRIC).gauge().value()).isEqualTo(3);
+
+        // the queued ingredients are written in one batch once the writer is started
+        ingestionService.start();
+        awaitWritten(garlic, onion, otherGarlic);
+        ingestionService.stop();
+
+        assertThat(garlic.getStatus()).isEqualTo(Ingestion.Status.CREATED);
+        assertThat(ingredientService.findById(garlic.getIngredient().getId()).getName()).isEqualTo("Garlic");
+        assertThat(onion.getStatus()).isEqualTo(Ingestion.Status.CONFLICT);
+        assertThat(otherGarlic.getStatus()).isEqualTo(Ingestion.Status.CONFLICT);
+        assertThat(ingestionService.findById(garlic.getId())).isSameAs(garlic);
+
+        final DistributionSummary batchSizes = meterRegistry.get(IngredientIngestionService.BATCH_SIZE_METRIC).summary();
+        assertThat(batchSizes.count()).isEqualTo(1);
+        assertThat(batchSizes.totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.get(IngredientIngestionService.QUEUE_DEPTH_METRIC).gauge().value()).isEqualTo(0);
+    }
+
+    @Test
+    public void failingIngredientDoesNotFailTheBatch() {
+        final Recipe deletedRecipe = new Recipe();
+        deletedRecipe.setId(Long.MAX_VALUE);
+        final Ingestion garlic = new Ingestion(createIngredient("Garlic", recipe));
+        final Ingestion leek = new Ingestion(createIngredient("Leek", deletedRecipe));
+
+        ingestionService.write(Arrays.asList(garlic, leek));
+
+        assertThat(garlic.getStatus()).isEqualTo(Ingestion.Status.CREATED);
+        assertThat(leek.getStatus()).isEqualTo(Ingestion.Status.INVALID);
+        assertThat(ingredientRepository.findByNameIn(Arrays.asList("Garlic", "Leek")))
+                .extracting(Ingredient::getName)
+                .containsExactly("Garlic");
+    }
+
+    @Test
+    public void stoppedServiceRejectsIngredients() {
+        ingestionService.start();
+        ingestionService.stop();
+
+        assertThat(ingestionService.submit(createIngredient("Garlic", recipe))).isNull();
+    }
+
+    private void awaitWritten(Ingestion... ingestions) throws InterruptedException {
+        for (int i = 0; i < 100 && Stream.of(ingestions).anyMatch(ingestion -> ingestion.getStatus() == Ingestion.Status.PENDING); i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static Ingredient createIngredient(String name, Recipe recipe) {
+        final Ingredient ingredient = new Ingredient();
+        ingredient.setName(name);
+        ingredient.setRecipe(recipe);
+        return ingredient;
+    }
+}
@@ -0,0 +1,137 @@
+package com.test.restaurant.service;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.repository.IngredientRepository;
+import com.test.restaurant.repository.RecipeRepository;
+import com.test.restaurant.service.event.IngredientDeletedEvent;
+import com.test.restaurant.service.event.IngredientSavedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest(classes = RestaurantApplication.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles(profiles = "test")
+public class RecipeSearchServiceTests {
+
+    @Autowired
+    private RecipeSearchService recipeSearchService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    private Recipe sauce;
+
+    private Recipe pizza;
+
+    @BeforeEach
+    public void initTest() {
+        sauce = saveRecipe("Sauce");
+        pizza = saveRecipe("Pizza");
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        ingredientRepository.deleteAll();
+        recipeRepository.deleteAll();
+        recipeSearchService.rebuild();
+    }
+
+    @Test
+    public void savedIngredientIsSearchable() {
+        final Ingredient tomato = ingredientService.save(createIngredient("Tomato", sauce));
+
+        assertThat(recipeSearchService.findByIngredientPrefix("tom", null, 10)).extracting(Recipe::getName).containsExactly("Sauce");
+
+        tomato.setRecipe(pizza);
+        ingredientService.upsertAll(Collections.singletonList(tomato));
+
+        assertThat(recipeSearchService.findByIngredientPrefix("tom", null, 10)).extracting(Recipe::getName).containsExactly("Pizza");
+    }
+
+    @Test
+    public void deletedIngredientIsNotSearchable() {
+        final Ingredient tomato = ingredientService.save(createIngredient("Tomato", sauce));
+
+        ingredientService.delete(tomato.getId(), null, null);
+
+        assertThat(recipeSearchService.findByIngredientPrefix("tom", null, 10)).isEmpty();
+    }
+
+    @Test
+    public void rebuildIndexesStoredIngredients() {
+        ingredientRepository.save(createIngredient("Cheese", pizza));
+        ingredientRepository.save(createIngredient("Chili", sauce));
+
+        recipeSearchService.rebuild();
+
+        assertThat(recipeSearchService.findByIngredientPrefix("ch", null, 10)).extracting(Recipe::getName)
+                .containsExactly("Sauce", "Pizza");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void changesDuringRebuildAreKept() {
+        final Ingredient cheese = ingredientRepository.save(createIngredient("Cheese", pizza));
+        final Ingredient chili = ingredientRepository.save(createIngredient("Chili", sauce));
+        final IngredientService exportingService = mock(IngredientService.class);
+        final RecipeSearchService searchService = new RecipeSearchService(exportingService, recipeService);
+        doAnswer(invocation -> {
+            final Consumer<Ingredient> consumer = invocation.getArgument(0);
+            // committed while the export goes on, which reads the ingredients as they were when it started
+            searchService.onIngredientDeleted(new IngredientDeletedEvent(cheese.getId()));
+            final Ingredient chives = ingredientRepository.save(createIngredient("Chives", pizza));
+            searchService.onIngredientSaved(new IngredientSavedEvent(chives, true));
+            consumer.accept(cheese);
+            consumer.accept(chili);
+            return null;
+        }).when(exportingService).export(any(Consumer.class));
+
+        searchService.rebuild();
+
+        assertThat(searchService.findByIngredientPrefix("ch", null, 10)).extracting(Recipe::getName)
+                .containsExactly("Sauce", "Pizza");
+        assertThat(searchService.findByIngredientPrefix("chee", null, 10)).isEmpty();
+        assertThat(searchService.findByIngredientPrefix("chiv", null, 10)).extracting(Recipe::getName)
+                .containsExactly("Pizza");
+    }
+
+    private Recipe saveRecipe(String name) {
+        final Recipe recipe = new Recipe();
+        recipe.setName(name);
+        recipe.setDescription("Descr");
+        return recipeRepository.save(recipe);
+    }
+
+    private static Ingredient createIngredient(String name, Recipe recipe) {
+        final Ingredient ingredient = new Ingredient();
+        ingredient.setName(name);
+        ingredient.setRecipe(recipe);
+        return ingredient;
+    }
+}
@@ -0,0 +1,231 @@
+package com.test.restaurant.service;
+
+import com.test.restaurant.RestaurantApplication;
+import com.test.restaurant.config.CacheConfiguration;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.repository.RecipeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = RestaurantApplication.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@ActiveProfiles(profiles = "test")
+public class RecipeServiceTests {
+    private static final int CALLERS = 32;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Recipe recipe;
+
+    @BeforeEach
+    public void initTest() {
+        recipe = new Recipe();
+        recipe.setName("Name");
+        recipe.setDescription("Descr");
+        recipe = recipeRepository.saveAndFlush(recipe);
+        // the lookups of the service go to the database, not to the second-level cache filled by the insert
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        recipeRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    public void findByIdIsServedFromCache() {
+        final double hits = cacheGets("hit");
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThat(recipeService.findById(recipe.getId()).getName()).isEqualTo("Name");
+        assertThat(recipeService.findById(recipe.getId()).getName()).isEqualTo("Name");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(cacheGets("hit")).isEqualTo(hits + 1);
+    }
+
+    @Test
+    public void saveEvictsCachedRecipe() {
+        recipeService.findById(recipe.getId());
+        recipeService.findPage(null, 10);
+
+        recipe.setName("UPDATED");
+        recipeService.save(recipe);
+
+        assertThat(cacheManager.getCache(CacheConfiguration.RECIPES).get(recipe.getId())).isNull();
+        assertThat(recipeService.findById(recipe.getId()).getName()).isEqualTo("UPDATED");
+        assertThat(recipeService.findPage(null, 10)).extracting(Recipe::getName).containsExactly("UPDATED");
+    }
+
+    @Test
+    public void deleteEvictsCachedRecipe() {
+        recipeService.findById(recipe.getId());
+
+        recipeService.delete(recipe.getId(), null);
+
+        assertThat(recipeService.findById(recipe.getId())).isNull();
+    }
+
+    @Test
+    public void concurrentFindByIdHitsDatabaseOnce() throws Exception {
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        final int loads = withSlowRepository("findById", () -> {
+            for (Future<Recipe> found : callConcurrently(() -> recipeService.findById(recipe.getId()))) {
+                assertThat(found.get().getName()).isEqualTo("Name");
+            }
+        });
+
+        assertThat(loads).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void concurrentFindAllHitsDatabaseOnce() throws Exception {
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        final int loads = withSlowRepository("findAll", () -> {
+            for (Future<List<Recipe>> found : callConcurrently(() -> recipeService.findAll())) {
+                assertThat(found.get()).extracting(Recipe::getName).containsExactly("Name");
+            }
+        });
+
+        assertThat(loads).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void loadStartedBeforeUpdateIsNotJoinedNorCached() throws Exception {
+        final CountDownLatch loaded = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        // holds the first load once it has read the recipe as it was before the update
+        final MethodInterceptor hold = invocation -> {
+            final Object result = invocation.proceed();
+            if (invocation.getMethod().getName().equals("findById") && loaded.getCount() > 0) {
+                loaded.countDown();
+                release.await();
+            }
+            return result;
+        };
+        final Advised repository = (Advised) recipeRepository;
+        repository.addAdvice(0, hold);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Recipe> stale = executor.submit(() -> recipeService.findById(recipe.getId()));
+            assertThat(loaded.await(5, TimeUnit.SECONDS)).isTrue();
+
+            final Recipe update = new Recipe();
+            update.setId(recipe.getId());
+            update.setName("UPDATED");
+            update.setDescription("Descr");
+            recipeService.update(update, null);
+
+            assertThat(recipeService.findById(recipe.getId()).getName()).isEqualTo("UPDATED");
+            release.countDown();
+            assertThat(stale.get(5, TimeUnit.SECONDS).getName()).isEqualTo("Name");
+            assertThat(recipeService.findById(recipe.getId()).getName()).isEqualTo("UPDATED");
+        } finally {
+            release.countDown();
+            repository.removeAdvice(hold);
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the test with the repository method delayed, so that all the concurrent callers miss the cache
+     * while its load is in flight.
+     * @return number of calls of the repository method
+     */
+    private int withSlowRepository(String methodName, ThrowingRunnable test) throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final MethodInterceptor delay = invocation -> {
+            if (invocation.getMethod().getName().equals(methodName)) {
+                calls.incrementAndGet();
+                Thread.sleep(200);
+            }
+            return invocation.proceed();
+        };
+        final Advised repository = (Advised) recipeRepository;
+        repository.addAdvice(0, delay);
+        try {
+            test.run();
+        } finally {
+            repository.removeAdvice(delay);
+        }
+        return calls.get();
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    private static <T> List<Future<T>> callConcurrently(Callable<T> call) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<T>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfiguration.RECIPES)
+                .tag("result", result)
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,161 @@
+package com.test.restaurant.service.batch;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BatchLoaderTests {
+
+    /**
+     * Key whose load lasts until released, to keep a load in flight.
+     */
+    private static final int HELD_KEY = 100;
+
+    private final List<Collection<Integer>> batches = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch held = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final Function<Integer, String> loadFunction = key -> {
+        if (key == HELD_KEY) {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "value" + key;
+        }
+        batches.add(Set.of(key));
+        return key >= 0 ? "value" + key : null;
+    };
+
+    private final Function<Collection<Integer>, Map<Integer, String>> batchFunction = keys -> {
+        batches.add(new HashSet<>(keys));
+        return keys.stream()
+                .filter(key -> key >= 0)
+                .collect(Collectors.toMap(Function.identity(), key -> "value" + key));
+    };
+
+    private ExecutorService callers;
+
+    private DistributionSummary batchSizes;
+
+    @BeforeEach
+    public void setup() {
+        callers = Executors.newFixedThreadPool(11);
+        batchSizes = DistributionSummary.builder("batch.loader.size").register(new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void concurrentLoadsAreBatched() throws Exception {
+        final BatchLoader<Integer, String> loader = new BatchLoader<>(loadFunction, batchFunction, Duration.ofMillis(200), 100, batchSizes);
+        holdLoad(loader);
+
+        final List<Future<String>> values = loadConcurrently(loader, 0, 1, 2, 3, 4, 0, 1, 2, -1, -1);
+
+        assertThat(values.get(0).get()).isEqualTo("value0");
+        assertThat(values.get(5).get()).isEqualTo("value0");
+        assertThat(values.get(4).get()).isEqualTo("value4");
+        assertThat(values.get(8).get()).isNull();
+        assertThat(batches).containsExactly(new HashSet<>(List.of(0, 1, 2, 3, 4, -1)));
+        // besides the held load
+        assertThat(batchSizes.count()).isEqualTo(2);
+        assertThat(batchSizes.totalAmount()).isEqualTo(7);
+    }
+
+    @Test
+    public void fullBatchIsLoadedBeforeTheEndOfItsWindow() throws Exception {
+        final BatchLoader<Integer, String> loader = new BatchLoader<>(loadFunction, batchFunction, Duration.ofMinutes(1), 2, batchSizes);
+        holdLoad(loader);
+
+        final List<Future<String>> values = loadConcurrently(loader, 1, 2);
+
+        assertThat(values.get(0).get(5, TimeUnit.SECONDS)).isEqualTo("value1");
+        assertThat(values.get(1).get(5, TimeUnit.SECONDS)).isEqualTo("value2");
+        assertThat(batches).containsExactly(new HashSet<>(List.of(1, 2)));
+    }
+
+    @Test
+    public void failureIsThrownToEveryCaller() {
+        final BatchLoader<Integer, String> loader = new BatchLoader<>(key -> {
+            throw new IllegalStateException("database is down");
+        }, keys -> {
+            throw new IllegalStateException("database is down");
+        }, Duration.ofMillis(10), 100, batchSizes);
+
+        assertThatThrownBy(() -> loader.load(1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("database is down");
+    }
+
+    @Test
+    public void loadWithoutOtherLoadInFlightDoesNotWaitForWindow() {
+        final BatchLoader<Integer, String> loader = new BatchLoader<>(loadFunction, batchFunction, Duration.ofMinutes(1), 100, batchSizes);
+
+        assertThat(loader.load(1)).isEqualTo("value1");
+        assertThat(loader.load(2)).isEqualTo("value2");
+        assertThat(batches).containsExactly(Set.of(1), Set.of(2));
+    }
+
+    @Test
+    public void zeroWindowLoadsEveryKeyOnItsOwn() {
+        final BatchLoader<Integer, String> loader = new BatchLoader<>(loadFunction, batchFunction, Duration.ZERO, 100, batchSizes);
+
+        assertThat(loader.load(1)).isEqualTo("value1");
+        assertThat(loader.load(2)).isEqualTo("value2");
+        assertThat(batches).hasSize(2);
+    }
+
+    /**
+     * Starts a load lasting until the end of the test, so that the following ones are batched.
+     */
+    private void holdLoad(BatchLoader<Integer, String> loader) throws InterruptedException {
+        callers.submit(() -> loader.load(HELD_KEY));
+        assertThat(held.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private List<Future<String>> loadConcurrently(BatchLoader<Integer, String> loader, Integer... keys) throws InterruptedException {
+        final CountDownLatch ready = new CountDownLatch(keys.length);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<String>> values = new ArrayList<>();
+        for (Integer key : keys) {
+            values.add(callers.submit(() -> {
+                ready.countDown();
+                start.await();
+                return loader.load(key);
+            }));
+        }
+        ready.await();
+        start.countDown();
+        return values;
+    }
+}
@@ -0,0 +1,163 @@
+package com.test.restaurant.service.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTests {
+    private static final int CALLERS = 16;
+
+    private final ConcurrentMapCache cache = new ConcurrentMapCache("values");
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final SingleFlight<Long, String> flights = new SingleFlight<>(cache, version::get);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ExecutorService callers;
+
+    @BeforeEach
+    public void setup() {
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallersShareOneLoad() throws Exception {
+        final List<Future<String>> values = loadConcurrently(() -> {
+            loads.incrementAndGet();
+            awaitRelease();
+            return "value";
+        });
+
+        release.countDown();
+        for (Future<String> value : values) {
+            assertThat(value.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(flights.size()).isZero();
+    }
+
+    @Test
+    public void failureIsThrownToEveryCaller() throws Exception {
+        final List<Future<String>> values = loadConcurrently(() -> {
+            loads.incrementAndGet();
+            awaitRelease();
+            throw new IllegalStateException("database is down");
+        });
+
+        release.countDown();
+        for (Future<String> value : values) {
+            assertThatThrownBy(() -> value.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasRootCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void completedLoadIsNotReused() {
+        assertThat(flights.load(1L, () -> "first")).isEqualTo("first");
+        cache.evict(1L);
+        assertThat(flights.load(1L, () -> "second")).isEqualTo("second");
+        assertThat(flights.load(2L, () -> null)).isNull();
+    }
+
+    @Test
+    public void loadedValueIsCached() {
+        assertThat(flights.load(1L, () -> "first")).isEqualTo("first");
+        assertThat(flights.load(1L, () -> "second")).isEqualTo("first");
+        assertThat(flights.load(2L, () -> null)).isNull();
+        assertThat(flights.load(2L, () -> "second")).isNull();
+    }
+
+    @Test
+    public void valueLoadedWhileDataChangedIsNotCached() {
+        assertThat(flights.load(1L, () -> {
+            version.incrementAndGet();
+            return "stale";
+        })).isEqualTo("stale");
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    public void loadStartedBeforeChangeIsNotJoined() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final Future<String> stale = callers.submit(() -> flights.load(1L, () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            awaitRelease();
+            return "stale";
+        }));
+        started.await();
+        version.incrementAndGet();
+        cache.evict(1L);
+
+        assertThat(flights.load(1L, () -> {
+            loads.incrementAndGet();
+            return "fresh";
+        })).isEqualTo("fresh");
+        release.countDown();
+        assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("stale");
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(flights.load(1L, () -> "reloaded")).isEqualTo("fresh");
+        assertThat(flights.size()).isZero();
+    }
+
+    /**
+     * Starts the callers once the first load is in flight, the load waiting for {@link #release},
+     * and returns once all of them are waiting.
+     */
+    private List<Future<String>> loadConcurrently(Supplier<String> loader) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        final List<Future<String>> values = new ArrayList<>();
+        values.add(callers.submit(() -> flights.load(1L, () -> {
+            started.countDown();
+            return loader.get();
+        })));
+        started.await();
+        for (int i = 1; i < CALLERS; i++) {
+            values.add(callers.submit(() -> {
+                threads.add(Thread.currentThread());
+                return flights.load(1L, loader);
+            }));
+        }
+        while (threads.size() < CALLERS - 1 || threads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+            Thread.sleep(1);
+        }
+        return values;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.test.restaurant.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IngredientNameIndexTests {
+
+    private IngredientNameIndex index;
+
+    @BeforeEach
+    public void initTest() {
+        index = new IngredientNameIndex();
+        index.put(1L, "Tomato", 10L);
+        index.put(2L, "Tomatillo", 20L);
+        index.put(3L, "Cheese", 30L);
+        index.put(4L, "Tomato sauce", 30L);
+    }
+
+    @Test
+    public void findRecipeIdsByPrefix() {
+        assertThat(index.findRecipeIds("tom", null, 10)).containsExactly(10L, 20L, 30L);
+        assertThat(index.findRecipeIds("TOMATO", null, 10)).containsExactly(10L, 30L);
+        assertThat(index.findRecipeIds("cheese", null, 10)).containsExactly(30L);
+        assertThat(index.findRecipeIds("basil", null, 10)).isEmpty();
+        assertThat(index.findRecipeIds("tomatoes", null, 10)).isEmpty();
+    }
+
+    @Test
+    public void findRecipeIdsPage() {
+        assertThat(index.findRecipeIds("tom", null, 2)).containsExactly(10L, 20L);
+        assertThat(index.findRecipeIds("tom", 20L, 2)).containsExactly(30L);
+    }
+
+    @Test
+    public void putReplacesPreviousNameAndRecipe() {
+        index.put(1L, "Basil", 20L);
+
+        assertThat(index.findRecipeIds("tomato", null, 10)).containsExactly(30L);
+        assertThat(index.findRecipeIds("basil", null, 10)).containsExactly(20L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    public void removeKeepsRecipesStillUsingThePrefix() {
+        index.remove(4L);
+
+        assertThat(index.findRecipeIds("tom", null, 10)).containsExactly(10L, 20L);
+        assertThat(index.findRecipeIds("c", null, 10)).containsExactly(30L);
+
+        index.remove(3L);
+
+        assertThat(index.findRecipeIds("c", null, 10)).isEmpty();
+        assertThat(index.findRecipeIds("", null, 10)).containsExactly(10L, 20L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,48 @@
+package com.test.restaurant.service.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecipeIdIndexTests {
+
+    private RecipeIdIndex index;
+
+    @BeforeEach
+    public void initTest() {
+        index = new RecipeIdIndex();
+        index.add(1L);
+        index.add(2L);
+        index.add(1000L);
+    }
+
+    @Test
+    public void containsAddedIds() {
+        assertThat(index.contains(1L)).isTrue();
+        assertThat(index.contains(1000L)).isTrue();
+        assertThat(index.contains(3L)).isFalse();
+        assertThat(index.contains(null)).isFalse();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void removeId() {
+        index.remove(2L);
+        index.remove(5L);
+
+        assertThat(index.contains(2L)).isFalse();
+        assertThat(index.contains(1L)).isTrue();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void idsOutOfRangeAreNeverIndexed() {
+        index.add(-1L);
+        index.add(Integer.MAX_VALUE + 1L);
+
+        assertThat(index.contains(-1L)).isFalse();
+        assertThat(index.contains(Integer.MAX_VALUE + 1L)).isFalse();
+        assertThat(index.size()).isEqualTo(3);
+    }
+}
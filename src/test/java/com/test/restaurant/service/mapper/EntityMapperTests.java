@@ -0,0 +1,54 @@
+package com.test.restaurant.service.mapper;
+
+import com.test.restaurant.entity.Ingredient;
+import com.test.restaurant.entity.Recipe;
+import com.test.restaurant.service.dto.IngredientDTO;
+import com.test.restaurant.service.dto.RecipeDTO;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EntityMapperTests {
+
+    private final Mapper mapper = new Mapper();
+
+    private final IngredientMapper directMapper = new IngredientMapperImpl(new RecipeMapperImpl());
+
+    private final IngredientMapper modelMapper = new ModelMapperIngredientMapper(mapper.modelMapper());
+
+    @Test
+    public void ingredientToDtoMatchesModelMapper() {
+        final Ingredient ingredient = createIngredientEntity();
+
+        assertThat(directMapper.toDto(ingredient)).usingRecursiveComparison().isEqualTo(modelMapper.toDto(ingredient));
+        assertThat(directMapper.toDto(ingredient, false)).usingRecursiveComparison().isEqualTo(modelMapper.toDto(ingredient, false));
+        assertThat(directMapper.toDto(ingredient, false).getRecipe()).isNull();
+        assertThat(directMapper.toDto(ingredient, false).getRecipeId()).isEqualTo(2L);
+    }
+
+    @Test
+    public void ingredientToEntityMatchesModelMapper() {
+        final IngredientDTO ingredientDTO = new IngredientDTO();
+        ingredientDTO.setId(1L);
+        ingredientDTO.setName("Tomato");
+        final RecipeDTO recipeDTO = new RecipeDTO();
+        recipeDTO.setId(2L);
+        ingredientDTO.setRecipe(recipeDTO);
+
+        final Ingredient direct = directMapper.toEntity(ingredientDTO);
+        assertThat(direct).usingRecursiveComparison().isEqualTo(modelMapper.toEntity(ingredientDTO));
+        assertThat(direct.getRecipe()).isNull();
+    }
+
+    private static Ingredient createIngredientEntity() {
+        final Recipe recipe = new Recipe();
+        recipe.setId(2L);
+        recipe.setName("Sauce");
+        recipe.setDescription("Sauce Description");
+        final Ingredient ingredient = new Ingredient();
+        ingredient.setId(1L);
+        ingredient.setName("Tomato");
+        ingredient.setRecipe(recipe);
+        return ingredient;
+    }
+}